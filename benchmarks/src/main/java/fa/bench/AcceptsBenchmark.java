@@ -0,0 +1,60 @@
+package fa.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fa.dfa.DFA;
+
+/**
+ * Throughput of accepts over input lengths and alphabet sizes.
+ * Each call takes the next of a fixed pool of random inputs.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@State(Scope.Benchmark)
+public class AcceptsBenchmark {
+
+    private static final int POOL = 64;
+
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int states;
+
+    @Param({ "2", "16" })
+    public int sigmaSize;
+
+    @Param({ "16", "1024", "65536" })
+    public int length;
+
+    private DFA dfa;
+    private String[] inputs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        this.dfa = Automata.random(this.states, this.sigmaSize);
+        this.inputs = Automata.inputs(POOL, this.length, Automata.sigma(this.sigmaSize), new Random(Automata.SEED));
+    }
+
+    @Benchmark
+    public boolean accepts() {
+        String input = this.inputs[this.next++ & (POOL - 1)];
+        return this.dfa.accepts(input);
+    }
+}
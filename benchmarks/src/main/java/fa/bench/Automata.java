@@ -0,0 +1,137 @@
+package fa.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import fa.dfa.DFA;
+import fa.dfa.DFAGenerator;
+
+/**
+ * This class generates the random automata and inputs the benchmarks run on.
+ * Everything is derived from a fixed seed so runs are comparable.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class Automata {
+
+    static final long SEED = 361;
+
+    private Automata() {
+    }
+
+    /**
+     * Names q0 .. q(n-1)
+     * @param states number of states
+     * @return the state names
+     */
+    static String[] names(int states) {
+        String[] names = new String[states];
+        for (int q = 0; q < states; q++) {
+            names[q] = "q" + q;
+        }
+        return names;
+    }
+
+    /**
+     * Alphabet of consecutive symbols starting at 'a'
+     * @param size number of symbols
+     * @return the symbols
+     */
+    static char[] sigma(int size) {
+        char[] sigma = new char[size];
+        for (int i = 0; i < size; i++) {
+            sigma[i] = (char) ('a' + i);
+        }
+        return sigma;
+    }
+
+    /**
+     * Random complete delta, entry q * |Sigma| + col is the target of q on sigma[col]
+     * @param states number of states
+     * @param sigmaSize number of symbols
+     * @param random source of randomness
+     * @return the targets
+     */
+    static int[] delta(int states, int sigmaSize, Random random) {
+        int[] delta = new int[states * sigmaSize];
+        for (int i = 0; i < delta.length; i++) {
+            delta[i] = random.nextInt(states);
+        }
+        return delta;
+    }
+
+    /**
+     * Builds a DFA through the public API, half of the states are final
+     * @param names state names
+     * @param sigma the alphabet
+     * @param delta targets as returned by delta
+     * @return the DFA
+     */
+    static DFA build(String[] names, char[] sigma, int[] delta) {
+        DFA dfa = new DFA();
+        for (char c : sigma) {
+            dfa.addSigma(c);
+        }
+        for (String name : names) {
+            dfa.addState(name);
+        }
+        dfa.setStart(names[0]);
+        for (int q = 0; q < names.length; q += 2) {
+            dfa.setFinal(names[q]);
+        }
+        for (int q = 0; q < names.length; q++) {
+            for (int col = 0; col < sigma.length; col++) {
+                dfa.addTransition(names[q], names[delta[q * sigma.length + col]], sigma[col]);
+            }
+        }
+        return dfa;
+    }
+
+    /**
+     * Random complete DFA from the shared generator, half of the states are final
+     * @param states number of states
+     * @param sigmaSize number of symbols
+     * @return the DFA
+     */
+    static DFA random(int states, int sigmaSize) {
+        return new DFAGenerator(SEED).generate(states, sigmaSize, 0.5, 1.0);
+    }
+
+    /**
+     * Random strings over the alphabet
+     * @param count number of strings
+     * @param length length of every string
+     * @param sigma the alphabet
+     * @param random source of randomness
+     * @return the strings
+     */
+    static String[] inputs(int count, int length, char[] sigma, Random random) {
+        String[] inputs = new String[count];
+        char[] chars = new char[length];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < length; j++) {
+                chars[j] = sigma[random.nextInt(sigma.length)];
+            }
+            inputs[i] = new String(chars);
+        }
+        return inputs;
+    }
+
+    /**
+     * Distinct random words of 6 to 12 lower case letters in sorted order
+     * @param count number of words, fewer if some repeat
+     * @param random source of randomness
+     * @return the sorted words
+     */
+    static String[] words(int count, Random random) {
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            char[] chars = new char[6 + random.nextInt(7)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            words[i] = new String(chars);
+        }
+        return Arrays.stream(words).sorted().distinct().toArray(String[]::new);
+    }
+}
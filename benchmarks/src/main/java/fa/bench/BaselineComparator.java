@@ -0,0 +1,155 @@
+package fa.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class compares a JMH CSV result file to a baseline CSV file.
+ * Rows are matched on benchmark name and parameters. Prints the change of every
+ * primary score and exits with status 1 if any got worse by more than the threshold.
+ * Of the profiler rows only :gc.alloc.rate.norm is gated, where lower is better and changes
+ * under one byte per operation are ignored. Other profiler rows such as gc.alloc.rate or
+ * gc.count follow from the speed of the run, so they are printed for information only.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+public final class BaselineComparator {
+
+    /** Profiler row that is gated along with the primary scores */
+    private static final String NORM = "gc.alloc.rate.norm";
+
+    /** Allocation changes below this many bytes per operation are noise */
+    private static final double NORM_FLOOR = 1.0;
+
+    private BaselineComparator() {
+    }
+
+    /**
+     * Entry point
+     * @param args baseline file, result file and threshold in percent
+     * @throws IOException if a file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: BaselineComparator baseline.csv results.csv thresholdPercent");
+            System.exit(2);
+        }
+        Path baselinePath = Paths.get(args[0]);
+        if (!Files.exists(baselinePath)) {
+            System.err.println("no baseline at " + baselinePath + ", record one with jmhBaseline");
+            System.exit(2);
+        }
+        Map<String, Row> baseline = read(baselinePath);
+        Map<String, Row> results = read(Paths.get(args[1]));
+        double threshold = Double.parseDouble(args[2]);
+
+        int regressions = 0;
+        for (Map.Entry<String, Row> entry : results.entrySet()) {
+            Row before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14.3f %s (new)%n", entry.getKey(), entry.getValue().score, entry.getValue().unit);
+                continue;
+            }
+            Row after = entry.getValue();
+            double change = before.score != 0 ? (after.score - before.score) / before.score * 100
+                    : after.score == 0 ? 0 : Double.POSITIVE_INFINITY; //e.g. a norm of 0 B/op that starts allocating
+            boolean gated = after.metric == null || after.metric.equals(NORM);
+            boolean worse = gated && worse(before, after, change, threshold);
+            if (worse) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f -> %14.3f %s %+7.1f%%%s%n", entry.getKey(), before.score, after.score,
+                    after.unit, change, worse ? "  REGRESSION" : gated ? "" : "  (info)");
+        }
+        System.out.println(regressions + " regression(s) over " + threshold + "%");
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /** Helper method to check a gated row: throughput is better when higher, times and allocation when lower */
+    private static boolean worse(Row before, Row after, double change, double threshold) {
+        if (after.metric != null) {
+            return after.score - before.score >= NORM_FLOOR && change > threshold;
+        }
+        return after.mode.equals("thrpt") ? -change > threshold : change > threshold;
+    }
+
+    /** Helper method to read a JMH CSV file keyed by benchmark and parameters */
+    private static Map<String, Row> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        Map<String, Row> rows = new LinkedHashMap<>();
+        if (lines.isEmpty()) {
+            return rows;
+        }
+        List<String> header = split(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int mode = header.indexOf("Mode");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> fields = split(line);
+            if (fields.size() != header.size()) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(fields.get(benchmark));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ")) {
+                    key.append(' ').append(header.get(i).substring(7)).append('=').append(fields.get(i));
+                }
+            }
+            String name = fields.get(benchmark);
+            int colon = name.indexOf(':');
+            String metric = colon < 0 ? null : name.substring(colon + 1); //e.g. accepts:gc.alloc.rate
+            rows.put(key.toString(), new Row(fields.get(mode), metric, Double.parseDouble(fields.get(score)),
+                    fields.get(unit)));
+        }
+        return rows;
+    }
+
+    /** Helper method to split a CSV line with double quoted fields */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** One score of a result file */
+    private static final class Row {
+        final String mode;
+        final String metric; //profiler metric, null for the primary score
+        final double score;
+        final String unit;
+
+        Row(String mode, String metric, double score, String unit) {
+            this.mode = mode;
+            this.metric = metric;
+            this.score = score;
+            this.unit = unit;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package fa.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fa.dfa.DFA;
+
+/**
+ * Time to build a DFA with addState and addTransition.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@State(Scope.Benchmark)
+public class ConstructionBenchmark {
+
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int states;
+
+    @Param({ "2", "16" })
+    public int sigmaSize;
+
+    private String[] names;
+    private char[] sigma;
+    private int[] delta;
+
+    @Setup
+    public void setup() {
+        this.names = Automata.names(this.states);
+        this.sigma = Automata.sigma(this.sigmaSize);
+        this.delta = Automata.delta(this.states, this.sigmaSize, new Random(Automata.SEED));
+    }
+
+    @Benchmark
+    public DFA build() {
+        return Automata.build(this.names, this.sigma, this.delta);
+    }
+}
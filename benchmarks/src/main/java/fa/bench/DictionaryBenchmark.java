@@ -0,0 +1,93 @@
+package fa.bench;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fa.dfa.DFADictionary;
+
+/**
+ * Building a DFADictionary from sorted words and looking words up in it,
+ * against a HashSet of the same words. Lookups take the next of a fixed
+ * pool of probes, half of them in the set. Every call builds a new String
+ * from the probe's characters, in both lookup benchmarks, since a String
+ * caches its hash and HashSet would otherwise skip hashing after the first
+ * pass over the pool.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@State(Scope.Benchmark)
+public class DictionaryBenchmark {
+
+    private static final int POOL = 4096;
+
+    @Param({ "10000", "1000000" })
+    public int words;
+
+    private String[] sorted;
+    private DFADictionary dictionary;
+    private Set<String> hashSet;
+    private char[][] probes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(Automata.SEED);
+        this.sorted = Automata.words(this.words, random);
+        this.dictionary = DFADictionary.fromSortedWords(Arrays.asList(this.sorted).iterator());
+        this.hashSet = new HashSet<>(Arrays.asList(this.sorted));
+        String[] absent = Automata.words(POOL / 2, random);
+        this.probes = new char[POOL][];
+        for (int i = 0; i < POOL; i++) {
+            String probe = i % 2 == 0 ? this.sorted[random.nextInt(this.sorted.length)] : absent[i / 2];
+            this.probes[i] = probe.toCharArray();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, batchSize = 1)
+    public DFADictionary build() {
+        return DFADictionary.fromSortedWords(Arrays.asList(this.sorted).iterator());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, batchSize = 1)
+    public Set<String> buildHashSet() {
+        return new HashSet<>(Arrays.asList(this.sorted));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean contains() {
+        return this.dictionary.contains(new String(this.probes[this.next++ & (POOL - 1)]));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean containsHashSet() {
+        return this.hashSet.contains(new String(this.probes[this.next++ & (POOL - 1)]));
+    }
+}
@@ -0,0 +1,76 @@
+package fa.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fa.dfa.DFA;
+
+/**
+ * Time of the whole-automaton operations: swap, relabel and the text export.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@State(Scope.Benchmark)
+public class TransformBenchmark {
+
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int states;
+
+    @Param({ "2", "16" })
+    public int sigmaSize;
+
+    private DFA dfa;
+    private Map<Character, Character> rotation;
+
+    @Setup
+    public void setup() {
+        this.dfa = Automata.random(this.states, this.sigmaSize);
+        char[] sigma = Automata.sigma(this.sigmaSize);
+        this.rotation = new HashMap<>();
+        for (int i = 0; i < sigma.length; i++) {
+            this.rotation.put(sigma[i], sigma[(i + 1) % sigma.length]);
+        }
+    }
+
+    @Benchmark
+    public DFA swap() {
+        return this.dfa.swap('a', 'b');
+    }
+
+    @Benchmark
+    public DFA relabel() {
+        return this.dfa.relabel(this.rotation);
+    }
+
+    @Benchmark
+    public String toStringTable() {
+        return this.dfa.toString();
+    }
+
+    @Benchmark
+    public Writer writeTo() throws IOException {
+        Writer out = Writer.nullWriter();
+        this.dfa.writeTo(out);
+        return out;
+    }
+}
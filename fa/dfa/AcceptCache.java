@@ -0,0 +1,307 @@
+package fa.dfa;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class caches the results of DFA.accepts for repeated inputs.
+ * It is attached to one DFA with DFA.setAcceptCache and is cleared
+ * automatically whenever that DFA is modified.
+ *
+ * The cache is split into lock striped segments, each a segmented LRU:
+ * new strings enter a probation list and move to a protected list when
+ * they are hit again, so one pass over many distinct strings can't push
+ * out the frequently repeated ones. The weight of an entry is the length
+ * of its string plus ENTRY_WEIGHT, and the total weight is bounded.
+ * Strings longer than the length cutoff bypass the cache entirely.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+public final class AcceptCache {
+
+    /** Weight charged for every entry on top of the length of its string */
+    public static final int ENTRY_WEIGHT = 16;
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final double PROTECTED_SHARE = 0.8;
+
+    private final long maximumWeight;
+    private final int cacheableLength;
+    private final Segment[] segments;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+
+    /**
+     * Construct new empty cache. The weight is split evenly over up to sixteen segments, fewer when
+     * a segment would otherwise be too light for even an empty string. Strings too heavy for one
+     * segment bypass the cache even when they are within maximumLength.
+     * @param maximumWeight bound on the total weight of all entries, at least ENTRY_WEIGHT
+     * @param maximumLength longest string that is cached
+     */
+    public AcceptCache(long maximumWeight, int maximumLength) {
+        if (maximumWeight < ENTRY_WEIGHT || maximumLength < 0) {
+            throw new IllegalArgumentException("maximumWeight must be at least ENTRY_WEIGHT and maximumLength not negative");
+        }
+        this.maximumWeight = maximumWeight;
+        int count = MAX_SEGMENTS;
+        while (maximumWeight / count < ENTRY_WEIGHT) { //Stays a power of two for the segment mask
+            count /= 2;
+        }
+        this.segments = new Segment[count];
+        long segmentWeight = maximumWeight / count;
+        this.cacheableLength = (int) Math.min(maximumLength, segmentWeight - ENTRY_WEIGHT); //An entry must fit its segment
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new Segment(segmentWeight);
+        }
+    }
+
+    /**
+     * Looks up the cached result for s
+     * @param s the input string
+     * @return the cached result, or null on a miss or if s is too long to cache
+     */
+    Boolean get(String s) {
+        if (s.length() > this.cacheableLength) {
+            this.bypasses.increment();
+            return null;
+        }
+        Boolean result = segment(s).get(s, this.generation.get());
+        if (result == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Stores a result computed while generation() returned the given value.
+     * Results computed before the last invalidation are dropped.
+     * @param s the input string
+     * @param accepted result of DFA.accepts(s)
+     * @param computedAt generation read before the result was computed
+     */
+    void put(String s, boolean accepted, long computedAt) {
+        if (s.length() <= this.cacheableLength && computedAt == this.generation.get()) {
+            this.evictions.add(segment(s).put(s, accepted, computedAt, this.generation));
+        }
+    }
+
+    /**
+     * Current generation, which changes on every invalidation
+     * @return the generation
+     */
+    long generation() {
+        return this.generation.get();
+    }
+
+    /**
+     * Drops every cached result. Called by the DFA whenever it is modified.
+     */
+    public void invalidateAll() {
+        this.generation.incrementAndGet();
+        for (Segment segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Getter for the number of lookups answered from the cache
+     * @return hit count
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Getter for the number of lookups that had to run the DFA
+     * @return miss count, not including bypasses
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Getter for the number of entries removed to stay under the weight bound
+     * @return eviction count
+     */
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Getter for the number of lookups skipped because the string was too long or too heavy for a segment
+     * @return bypass count
+     */
+    public long getBypassCount() {
+        return this.bypasses.sum();
+    }
+
+    /**
+     * Fraction of cacheable lookups that were hits
+     * @return hits / (hits + misses), or 0 before the first lookup
+     */
+    public double getHitRate() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * Getter for the number of cached results
+     * @return entry count
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : this.segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Getter for the total weight of cached results
+     * @return weight, at most the maximum weight
+     */
+    public long weight() {
+        long weight = 0;
+        for (Segment segment : this.segments) {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "AcceptCache[size=" + size() + ", weight=" + weight() + "/" + this.maximumWeight
+                + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + ", bypasses=" + getBypassCount() + "]";
+    }
+
+    /** Helper method to pick the segment of a string */
+    private Segment segment(String s) {
+        int h = s.hashCode();
+        h ^= h >>> 16;
+        return this.segments[h & (this.segments.length - 1)];
+    }
+
+    /** Cached result of one string */
+    private static final class Entry {
+        final boolean accepted;
+        final long generation;
+        final int weight;
+
+        Entry(boolean accepted, long generation, int weight) {
+            this.accepted = accepted;
+            this.generation = generation;
+            this.weight = weight;
+        }
+    }
+
+    /** One lock striped segmented LRU */
+    private static final class Segment {
+        private final long maximumWeight;
+        private final long protectedMaximum;
+        private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Entry> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+        private long probationWeight;
+        private long protectedWeight;
+
+        Segment(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            this.protectedMaximum = (long) (maximumWeight * PROTECTED_SHARE);
+        }
+
+        synchronized Boolean get(String s, long generation) {
+            Entry entry = this.protectedEntries.get(s); //Moves the entry to the most recent end
+            if (entry == null) {
+                entry = this.probation.remove(s);
+                if (entry == null) {
+                    return null;
+                }
+                this.probationWeight -= entry.weight;
+                if (entry.generation != generation) {
+                    return null;
+                }
+                this.protectedEntries.put(s, entry); //Second hit, promote
+                this.protectedWeight += entry.weight;
+                demote();
+            } else if (entry.generation != generation) {
+                this.protectedEntries.remove(s);
+                this.protectedWeight -= entry.weight;
+                return null;
+            }
+            return entry.accepted;
+        }
+
+        /** Adds an entry, returns how many entries were evicted */
+        synchronized int put(String s, boolean accepted, long computedAt, AtomicLong generation) {
+            if (computedAt != generation.get() || this.protectedEntries.containsKey(s)
+                    || this.probation.containsKey(s)) {
+                return 0;
+            }
+            Entry entry = new Entry(accepted, computedAt, s.length() + ENTRY_WEIGHT);
+            this.probation.put(s, entry);
+            this.probationWeight += entry.weight;
+            return evict();
+        }
+
+        synchronized void clear() {
+            this.probation.clear();
+            this.protectedEntries.clear();
+            this.probationWeight = 0;
+            this.protectedWeight = 0;
+        }
+
+        synchronized int size() {
+            return this.probation.size() + this.protectedEntries.size();
+        }
+
+        synchronized long weight() {
+            return this.probationWeight + this.protectedWeight;
+        }
+
+        /** Helper method to move least recent protected entries back to probation */
+        private void demote() {
+            Iterator<Map.Entry<String, Entry>> oldest = this.protectedEntries.entrySet().iterator();
+            while (this.protectedWeight > this.protectedMaximum && oldest.hasNext()) {
+                Map.Entry<String, Entry> demoted = oldest.next();
+                oldest.remove();
+                this.protectedWeight -= demoted.getValue().weight;
+                this.probation.put(demoted.getKey(), demoted.getValue());
+                this.probationWeight += demoted.getValue().weight;
+            }
+        }
+
+        /** Helper method to drop least recent entries, probation first, until under the bound */
+        private int evict() {
+            int evicted = 0;
+            evicted += evictFrom(this.probation, true);
+            evicted += evictFrom(this.protectedEntries, false);
+            return evicted;
+        }
+
+        private int evictFrom(LinkedHashMap<String, Entry> entries, boolean probationList) {
+            int evicted = 0;
+            Iterator<Entry> oldest = entries.values().iterator();
+            while (this.probationWeight + this.protectedWeight > this.maximumWeight && oldest.hasNext()) {
+                Entry entry = oldest.next();
+                oldest.remove();
+                if (probationList) {
+                    this.probationWeight -= entry.weight;
+                } else {
+                    this.protectedWeight -= entry.weight;
+                }
+                evicted++;
+            }
+            return evicted;
+        }
+    }
+}
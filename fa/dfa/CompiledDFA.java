@@ -0,0 +1,162 @@
+package fa.dfa;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class represents an index based snapshot of a Deterministic Finite Automata (DFA).
+ * States and symbols are numbered in the order they were added to the DFA, and delta
+ * is flattened into a single |Q| x |Sigma| table so that derived automata and bulk
+ * operations never have to look anything up by name.
+ *
+ * A snapshot is never modified after construction, the DFA rebuilds it after mutation.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class CompiledDFA {
+
+    /** Marks a missing transition in the delta table */
+    static final int NONE = -1;
+
+    final DFAState[] states;
+    final char[] symbols;
+    final int[] delta;
+    final boolean[] finals;
+    final int start;
+
+    private final int[] columns;
+    private boolean[] live;
+
+    /**
+     * Construct the snapshot from the DFA's 5-tuple
+     * @param states Q in insertion order
+     * @param sigma the alphabet in insertion order
+     * @param transitionTable delta of the DFA
+     * @param startingState q0, may be null
+     * @param finalStates F
+     */
+    CompiledDFA(Set<DFAState> states, Set<Character> sigma, Map<DFAState, Map<Character, DFAState>> transitionTable,
+            DFAState startingState, Set<DFAState> finalStates) {
+        this.states = states.toArray(new DFAState[0]);
+        this.symbols = new char[sigma.size()];
+        int maxSymbol = -1;
+        int i = 0;
+        for (char c : sigma) {
+            this.symbols[i++] = c;
+            maxSymbol = Math.max(maxSymbol, c);
+        }
+
+        this.columns = new int[maxSymbol + 1];
+        Arrays.fill(this.columns, NONE);
+        for (int col = 0; col < this.symbols.length; col++) {
+            this.columns[this.symbols[col]] = col;
+        }
+
+        Map<DFAState, Integer> index = new HashMap<>(this.states.length * 2);
+        for (int q = 0; q < this.states.length; q++) {
+            index.put(this.states[q], q);
+        }
+
+        this.delta = new int[this.states.length * this.symbols.length];
+        this.finals = new boolean[this.states.length];
+        for (int q = 0; q < this.states.length; q++) {
+            Map<Character, DFAState> transitions = transitionTable.get(this.states[q]);
+            for (int col = 0; col < this.symbols.length; col++) {
+                DFAState to = transitions == null ? null : transitions.get(this.symbols[col]);
+                this.delta[q * this.symbols.length + col] = to == null ? NONE : index.get(to);
+            }
+            this.finals[q] = finalStates.contains(this.states[q]);
+        }
+        this.start = startingState == null ? NONE : index.get(startingState);
+    }
+
+    /**
+     * Column of a symbol in the delta table
+     * @param c input symbol
+     * @return column index or NONE if c is not in Sigma
+     */
+    int column(char c) {
+        return c < this.columns.length ? this.columns[c] : NONE;
+    }
+
+    /**
+     * Next state of the transition from state on the symbol in column col
+     * @param state index of the state
+     * @param col column of the symbol
+     * @return index of the next state or NONE
+     */
+    int next(int state, int col) {
+        return this.delta[state * this.symbols.length + col];
+    }
+
+    /**
+     * Determines which states can still reach a final state.
+     * Computed once per snapshot with a backwards search from F.
+     * @return flags indexed by state
+     */
+    synchronized boolean[] live() {
+        if (this.live == null) {
+            int[][] reverse = reverseTable();
+            int[] offsets = reverse[0];
+            int[] sources = reverse[1];
+            int sigmaSize = this.symbols.length;
+
+            boolean[] reached = new boolean[this.states.length];
+            int[] stack = new int[this.states.length];
+            int top = 0;
+            for (int q = 0; q < this.states.length; q++) {
+                if (this.finals[q]) {
+                    reached[q] = true;
+                    stack[top++] = q;
+                }
+            }
+            while (top > 0) {
+                int q = stack[--top];
+                for (int k = offsets[q * sigmaSize]; k < offsets[(q + 1) * sigmaSize]; k++) {
+                    int p = sources[k];
+                    if (!reached[p]) {
+                        reached[p] = true;
+                        stack[top++] = p;
+                    }
+                }
+            }
+            this.live = reached;
+        }
+        return this.live;
+    }
+
+    /**
+     * Builds the reversed delta in compressed row form. For the cell
+     * (q, col) the states p with delta(p, col) = q are
+     * sources[offsets[q * |Sigma| + col] .. offsets[q * |Sigma| + col + 1]).
+     * @return the pair { offsets, sources }
+     */
+    int[][] reverseTable() {
+        int cells = this.delta.length;
+        int[] offsets = new int[cells + 1];
+        for (int p = 0; p < this.states.length; p++) {
+            for (int col = 0; col < this.symbols.length; col++) {
+                int q = this.delta[p * this.symbols.length + col];
+                if (q != NONE) {
+                    offsets[q * this.symbols.length + col + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            offsets[cell + 1] += offsets[cell];
+        }
+        int[] fill = Arrays.copyOf(offsets, cells);
+        int[] sources = new int[offsets[cells]];
+        for (int p = 0; p < this.states.length; p++) {
+            for (int col = 0; col < this.symbols.length; col++) {
+                int q = this.delta[p * this.symbols.length + col];
+                if (q != NONE) {
+                    sources[fill[q * this.symbols.length + col]++] = p;
+                }
+            }
+        }
+        return new int[][] { offsets, sources };
+    }
+}
@@ -0,0 +1,112 @@
+package fa.dfa;
+
+import java.util.Set;
+
+import fa.State;
+
+/**
+ * This class is a view of a Deterministic Finite Automata (DFA) with a complete transition function.
+ * Every missing transition goes to an implicit trap state that loops on all of Sigma, the trap is
+ * never stored in delta. Simulation walks the DFA's own states and treats a missing transition as
+ * entering the trap, so the view builds no table however large delta is. With complement set the
+ * view also flips which states are final, trap included, so it accepts exactly the strings over
+ * Sigma that the DFA rejects.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class CompletedDFA extends DFAView {
+
+    private static final String TRAP = "trap";
+
+    private final DFA dfa;
+    private final boolean complement;
+
+    /**
+     * Construct new view
+     * @param dfa the completed DFA
+     * @param complement true to flip final states
+     */
+    CompletedDFA(DFA dfa, boolean complement) {
+        this.dfa = dfa;
+        this.complement = complement;
+    }
+
+    /**
+     * Simulates the completed DFA on input s. Symbols outside of
+     * Sigma are rejected whether or not the view is complemented.
+     * @param s - the input string
+     * @return true if s in the language of the view and false otherwise
+     */
+    public boolean accepts(String s) {
+        DFAState state = this.dfa.startState();
+        if (state == null) {
+            return false;
+        }
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (!this.dfa.inSigma(c)) {
+                return false;
+            }
+            if (state != null) { //Once in the trap, stay there
+                state = state.getNextState(c);
+            }
+        }
+        boolean isFinal = state != null && this.dfa.isFinalState(state);
+        return isFinal != this.complement;
+    }
+
+    /**
+     * Getter for Sigma
+     * @return the alphabet of the DFA
+     */
+    public Set<Character> getSigma() {
+        return this.dfa.getSigma();
+    }
+
+    /**
+     * Returns state with the given name, or null if none exists.
+     * The trap state is named trap, with ' appended while that name is taken.
+     * @param name of a state
+     * @return state object or null
+     */
+    public State getState(String name) {
+        State state = this.dfa.getState(name);
+        if (state == null && name.equals(trapName())) {
+            return new DFAState(name);
+        }
+        return state;
+    }
+
+    /**
+     * Determines if a state with a given name is final in the view
+     * @param name the name of the state
+     * @return true if a state with that name exists and it is final
+     */
+    public boolean isFinal(String name) {
+        if (this.dfa.getState(name) != null) {
+            return this.dfa.isFinal(name) != this.complement;
+        }
+        return this.complement && name.equals(trapName());
+    }
+
+    /**
+     * Determines if a state with name is the start state
+     * @param name the name of the state
+     * @return true if a state with that name exists and it is the start state
+     */
+    public boolean isStart(String name) {
+        return this.dfa.isStart(name);
+    }
+
+    /**
+     * Name of the implicit trap state
+     * @return a name not used by any state of the DFA
+     */
+    String trapName() {
+        String name = TRAP;
+        while (this.dfa.getState(name) != null) {
+            name += "'";
+        }
+        return name;
+    }
+}
@@ -1,13 +1,25 @@
 package fa.dfa;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Set;
 
+import fa.FAInterface;
 import fa.State;
 
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class represents a Deterministic Finitea Automatin (DFA).
@@ -26,6 +38,16 @@ public class DFA implements DFAInterface {
     private DFAState startingState;
     private Set<DFAState> finalStates;
 
+    // Index of Q by name, so lookups don't scan every state
+    private Map<String, DFAState> stateIndex;
+
+    // Derived automata, rebuilt on demand after the DFA is modified
+    private volatile CompiledDFA compiled;
+    private volatile DFASearch search;
+
+    // Optional cache of accepts results, cleared after the DFA is modified
+    private volatile AcceptCache acceptCache;
+
     /** 
      * DFA Constructor
      * */
@@ -35,6 +57,7 @@ public class DFA implements DFAInterface {
         this.sigma = new LinkedHashSet<>();
         this.transitionTable = new HashMap<>();
         this.finalStates = new LinkedHashSet<>();
+        this.stateIndex = new HashMap<>();
     }
 
 
@@ -56,33 +79,55 @@ public class DFA implements DFAInterface {
 	 */
 	public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append(" Q = { ");
-        for (DFAState state : this.states) sb.append(state.getName()).append(" "); //Print existing states
-        sb.append("}\n");
-
-        sb.append("Sigma = { ");
-        for (char c : this.sigma) sb.append(c).append(" "); //Print alphabet
-        sb.append("}\n");
-
-        sb.append("delta =\n\t"); 
-        for (char c : this.sigma) sb.append(c).append("\t");
-        sb.append("\n");
-
-        for (DFAState state : this.states) { //Print transition table
-            sb.append(state.getName()).append("\t");
-            Map<Character, DFAState> transitions = this.transitionTable.getOrDefault(state, new HashMap<>());
-            for (char c : this.sigma) {
-                sb.append(transitions.getOrDefault(c, new DFAState("-")).getName()).append("\t");
-            }
-            sb.append("\n");
+        try {
+            writeTo(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); //StringBuilder never throws
         }
-
-        sb.append("q0 = ").append(startingState.getName()).append("\n"); //Print starting state
-        sb.append("F = { ");
-        for (DFAState finalState : this.finalStates) sb.append(finalState.getName()).append(" "); //Print accepting states
-        sb.append("}\n");
         return sb.toString();
     }
+
+    /**
+     * Streams the textual representation returned by toString()
+     * row by row, without building it in memory first.
+     * @param out destination of the text
+     * @throws IOException if out fails
+     */
+    public void writeTo(Appendable out) throws IOException {
+        writer().writeTable(out);
+    }
+
+    /**
+     * Streams the textual representation returned by toString()
+     * through a buffer and flushes the writer when done.
+     * @param out destination of the text
+     * @throws IOException if out fails
+     */
+    public void writeTo(Writer out) throws IOException {
+        Writer buffered = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+        writer().writeTable(buffered);
+        buffered.flush();
+    }
+
+    /**
+     * Streams this DFA as a GraphViz digraph, one edge per transition.
+     * Final states are drawn as double circles and q0 has an incoming arrow.
+     * @param out destination of the graph
+     * @throws IOException if out fails
+     */
+    public void writeDot(Appendable out) throws IOException {
+        writer().writeDot(out);
+    }
+
+    /**
+     * Streams the transitions of this DFA as CSV with
+     * the header from,symbol,to and one row per transition.
+     * @param out destination of the rows
+     * @throws IOException if out fails
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        writer().writeCsv(out);
+    }
 	
 	
 	/**
@@ -101,8 +146,7 @@ public class DFA implements DFAInterface {
             return false;
         }
 
-        from.addNextState(onSymb, to);
-        this.transitionTable.put(from, from.getNextState());
+        putTransition(from, to, onSymb);
 
         return true;
     }
@@ -115,28 +159,35 @@ public class DFA implements DFAInterface {
 	 * @return a copy of this DFA
 	 */
 	public DFA swap(char symb1, char symb2) {
-        DFA swapCopy = new DFA();
-
-        for (Character s : this.sigma) {
-            swapCopy.addSigma(s); //Copy over alphbet (sigma)
-        }
-
-        for (DFAState state : this.states) {  
-            swapCopy.addState(state.getName()); //Copy over existing states (Q)
-        }
-
-        swapCopy.setStart(startingState.getName()); //Copy over starting state (q0)
-
-        for (DFAState finals : this.finalStates) { //Copy over accepting states (F)
-            swapCopy.setFinal(finals.getName());
-        }
+        Map<Character, Character> swapped = new HashMap<>();
+        swapped.put(symb1, symb2); //Reading symb1 follows the old symb2 transitions
+        swapped.put(symb2, symb1); //Reading symb2 follows the old symb1 transitions
+        return relabel(swapped);
+    }
 
-        for (DFAState state : this.states) { //Copy transition table (delta)
-            swapCopy.addTransition(state.getName(), state.getNextState(symb1).getName(), symb2); //Swaps next state transitions symb1 -> symb2
-            swapCopy.addTransition(state.getName(), state.getNextState(symb2).getName(), symb1); //Swaps next state transitions symb2 -> symb1
-        }
+    /**
+     * Creates a deep copy of this DFA with its symbols relabeled.
+     * Each key of the mapping is read as its value and symbols that
+     * are not keys are read as themselves, so permutations swap columns
+     * of delta and many-to-one mappings merge symbols. Sigma of the copy
+     * is every symbol that is read as a symbol of this DFA.
+     * Runs in one pass over delta.
+     * @param mapping maps input symbols to the symbols they are read as
+     * @return a relabeled copy of this DFA
+     */
+    public DFA relabel(Map<Character, Character> mapping) {
+        return RelabeledDFA.materialize(this, copyMapping(mapping));
+    }
 
-        return swapCopy;
+    /**
+     * Creates a read-only view of this DFA with its symbols relabeled
+     * as in relabel(mapping). Nothing is copied, symbols are remapped
+     * while accepts runs and the view follows later changes to this DFA.
+     * @param mapping maps input symbols to the symbols they are read as
+     * @return a relabeled view of this DFA
+     */
+    public FAInterface relabelView(Map<Character, Character> mapping) {
+        return new RelabeledDFA(this, copyMapping(mapping));
     }
 
     /**
@@ -145,14 +196,7 @@ public class DFA implements DFAInterface {
 	 * @return true if a new state created successfully and false if there is already state with such name
 	 */
 	public boolean addState(String name) {
-        for (DFAState state : this.states) {
-            if (state.getName().equals(name)) { //Check state with 'name' doesn't exist
-                return false;
-            }
-        }
-
-        DFAState state = new DFAState(name);
-        return this.states.add(state);
+        return putState(name) != null; //Fails if state with 'name' already exists
     }
 
 	/**
@@ -164,6 +208,7 @@ public class DFA implements DFAInterface {
         DFAState state = getStateByName(name);
         if (state != null) {
             this.finalStates.add(state);
+            modified();
             return true;
         }
         return false;
@@ -178,6 +223,7 @@ public class DFA implements DFAInterface {
         DFAState state = getStateByName(name);
         if (state != null) {
             this.startingState = state;
+            modified();
             return true;
         }
         return false;
@@ -188,7 +234,9 @@ public class DFA implements DFAInterface {
 	 * @param symbol to add to the alphabet set
 	 */
 	public void addSigma(char symbol) {
-        this.sigma.add(symbol);
+        if (this.sigma.add(symbol)) {
+            modified();
+        }
     }
 
 
@@ -199,17 +247,54 @@ public class DFA implements DFAInterface {
 	 * @return true if s in the language of the DFA and false otherwise
 	 */
 	public boolean accepts(String s) {
-        
+        AcceptCache cache = this.acceptCache;
+        if (cache == null) {
+            return simulate(s);
+        }
+        long generation = cache.generation(); //Read before simulating so a concurrent change drops the result
+        Boolean cached = cache.get(s);
+        if (cached != null) {
+            return cached;
+        }
+        boolean accepted = simulate(s);
+        cache.put(s, accepted, generation);
+        return accepted;
+    }
+
+    /**
+     * Attaches a cache of accepts results to this DFA, replacing any previous one.
+     * The cache is cleared now and whenever this DFA is modified, so it must
+     * not be shared with another DFA.
+     * @param cache the cache, or null to stop caching
+     */
+    public void setAcceptCache(AcceptCache cache) {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        this.acceptCache = cache;
+    }
+
+    /**
+     * Getter for the cache of accepts results
+     * @return the attached cache or null
+     */
+    public AcceptCache getAcceptCache() {
+        return this.acceptCache;
+    }
+
+    /** Helper method to run this DFA on s */
+    private boolean simulate(String s) {
         if (this.startingState == null) {
             return false;
         }
         DFAState currentState = this.startingState;
 
-        for (char c : s.toCharArray()) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
             if (!sigma.contains(c)) {
                 return false;
             }
-            currentState = this.transitionTable.getOrDefault(currentState, new HashMap<>()).get(c);
+            currentState = currentState.getNextState(c); //Same map as transitionTable holds, one lookup less
             if (currentState == null) {
                 return false;
             }
@@ -261,14 +346,213 @@ public class DFA implements DFAInterface {
         return false;
     }
 
-    /** Helper method to return state object by name */
-    private DFAState getStateByName(String name) {
-        for (DFAState state : this.states) {
-            if (state.getName().equals(name)) {
-                return state;
+    /**
+     * Finds the leftmost-longest substring of text accepted by this DFA.
+     * Runs in time linear in the length of the text.
+     * @param text the text to search
+     * @return the match or null if no substring is accepted
+     */
+    public DFAMatch find(CharSequence text) {
+        return find(text, 0);
+    }
+
+    /**
+     * Finds the leftmost-longest substring of text accepted by this DFA
+     * that starts at or after index from. Reads the text only up to where
+     * no earlier or longer match is possible any more. Calling it again from
+     * the end of each match can still reread text a candidate start stayed
+     * alive over without matching, use findAll to get every match in one pass.
+     * @param text the text to search
+     * @param from index to start searching at
+     * @return the match or null if no such substring is accepted
+     */
+    public DFAMatch find(CharSequence text, int from) {
+        if (from < 0 || from > text.length()) {
+            throw new IndexOutOfBoundsException("from " + from + " outside text of length " + text.length());
+        }
+        return search().find(text, from);
+    }
+
+    /**
+     * Finds all non-overlapping leftmost-longest substrings of text accepted by this DFA.
+     * An empty match is reported at most once per position.
+     * @param text the text to search
+     * @return matches in order of their start index
+     */
+    public List<DFAMatch> findAll(CharSequence text) {
+        List<DFAMatch> matches = new ArrayList<>();
+        search().findAll(text, matches);
+        return matches;
+    }
+
+    /**
+     * Counts the matches findAll would return without creating them
+     * @param text the text to search
+     * @return number of non-overlapping leftmost-longest matches
+     */
+    public int count(CharSequence text) {
+        return search().findAll(text, null);
+    }
+
+    /** Helper method to return the index based snapshot of this DFA */
+    CompiledDFA compiled() {
+        CompiledDFA table = this.compiled;
+        if (table == null) {
+            table = new CompiledDFA(this.states, this.sigma, this.transitionTable, this.startingState, this.finalStates);
+            this.compiled = table;
+        }
+        return table;
+    }
+
+    /**
+     * Builds the minimal DFA accepting exactly the given words. The automaton is
+     * kept minimal while the words are added, see DFADictionary, which also offers
+     * a compact form with build statistics when no DFA object is needed.
+     * @param words the words in strictly increasing String.compareTo order
+     * @return the minimal DFA, states are named q0, q1, ... with q0 as the start state
+     * @throws IllegalArgumentException if the words are not sorted
+     */
+    public static DFA fromSortedWords(Iterator<? extends CharSequence> words) {
+        return DFADictionary.fromSortedWords(words).toDFA();
+    }
+
+    /**
+     * Creates a read-only view of this DFA in which every missing
+     * transition goes to an implicit trap state. The trap is not
+     * stored, so the view costs nothing however sparse delta is.
+     * @return the completed view, following later changes to this DFA
+     */
+    public FAInterface complete() {
+        return new CompletedDFA(this, false);
+    }
+
+    /**
+     * Creates a read-only view accepting exactly the strings over Sigma
+     * that this DFA rejects. It shares delta and only flips final states,
+     * the implicit trap state becoming final.
+     * @return the complement view, following later changes to this DFA
+     */
+    public FAInterface complement() {
+        return new CompletedDFA(this, true);
+    }
+
+    /**
+     * Creates a read-only view accepting the reverse of every string this
+     * DFA accepts. Reversal is nondeterministic, the view determinizes it
+     * lazily as inputs are read and caches the subset states it builds.
+     * @return the reversed view, following later changes to this DFA
+     */
+    public FAInterface reverse() {
+        return new ReversedDFA(this);
+    }
+
+    /**
+     * Lists the strings this DFA accepts in shortlex order, shorter strings
+     * first and strings of equal length ordered by symbol value. The stream
+     * is lazy and endless for infinite languages, and it enumerates this DFA
+     * as it is now.
+     * @return the accepted strings
+     */
+    public Stream<String> acceptedStrings() {
+        Iterator<String> strings = new ShortlexIterator(compiled());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(strings,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Creates a sampler that draws accepted strings of one length
+     * uniformly at random. Building it counts the paths of every
+     * state once, after which each sample costs O(length * |Sigma|).
+     * @param length length of the sampled strings
+     * @return the sampler over this DFA as it is now
+     */
+    public DFASampler sampler(int length) {
+        return new DFASampler(compiled(), length);
+    }
+
+    /** Helper method to copy a symbol mapping, rejecting null symbols */
+    private static Map<Character, Character> copyMapping(Map<Character, Character> mapping) {
+        Map<Character, Character> copy = new HashMap<>();
+        for (Map.Entry<Character, Character> entry : mapping.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new IllegalArgumentException("null symbol in mapping");
             }
+            copy.put(entry.getKey(), entry.getValue());
+        }
+        return copy;
+    }
+
+    /** Helper method to return a writer over this DFA's 5-tuple */
+    private DFAWriter writer() {
+        return new DFAWriter(this.states, this.sigma, this.transitionTable, this.startingState, this.finalStates);
+    }
+
+    /** Helper method to return the cached search automata */
+    private DFASearch search() {
+        DFASearch searcher = this.search;
+        if (searcher == null) {
+            searcher = new DFASearch(compiled());
+            this.search = searcher;
+        }
+        return searcher;
+    }
+
+    /** Helper method to drop derived automata after the DFA changes */
+    private void modified() {
+        this.compiled = null;
+        this.search = null;
+        AcceptCache cache = this.acceptCache;
+        if (cache != null) {
+            cache.invalidateAll();
         }
-        return null;
+    }
+
+    /** Helper method for views, returns the start state or null */
+    DFAState startState() {
+        return this.startingState;
+    }
+
+    /** Helper method for views, determines if a state of this DFA is final */
+    boolean isFinalState(DFAState state) {
+        return this.finalStates.contains(state);
+    }
+
+    /** Helper method for views, determines if a symbol is in Sigma */
+    boolean inSigma(char c) {
+        return this.sigma.contains(c);
+    }
+
+    /** Helper method to return state object by name */
+    DFAState getStateByName(String name) {
+        return this.stateIndex.get(name);
+    }
+
+    /**
+     * Helper method for bulk loaders, adds a state and returns it
+     * @param name is the label of the state
+     * @return the new state or null if there is already state with such name
+     */
+    DFAState putState(String name) {
+        DFAState state = new DFAState(name);
+        if (this.stateIndex.putIfAbsent(name, state) != null) {
+            return null;
+        }
+        this.states.add(state);
+        modified();
+        return state;
+    }
+
+    /**
+     * Helper method for bulk loaders, adds a transition between states of
+     * this DFA without looking them up. The symbol must already be in Sigma.
+     * @param from state where the transition starts
+     * @param to state where the transition ends
+     * @param onSymb symbol from the DFA's alphabet
+     */
+    void putTransition(DFAState from, DFAState to, char onSymb) {
+        from.addNextState(onSymb, to);
+        this.transitionTable.putIfAbsent(from, from.transitions()); //Shares the state's own map, no copy per transition
+        modified();
     }
     
 }
@@ -0,0 +1,379 @@
+package fa.dfa;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * This class is the minimal Deterministic Finite Automata (DFA) accepting a finite set of words,
+ * built incrementally from the words in sorted order.
+ *
+ * Construction follows Daciuk et al., "Incremental Construction of Minimal Acyclic Finite-State
+ * Automata" (2000). Only the path of the last added word is left open; when the next word leaves
+ * that path, the states below the branching point are frozen one by one and merged with an
+ * equivalent state from a register when one exists. The automaton is therefore minimal after
+ * every word and memory stays close to the size of the result, there is no trie to minimize.
+ *
+ * Frozen states go straight into flat arrays and the register is a hash table of state numbers,
+ * so only the open path exists as objects and construction creates almost no garbage.
+ *
+ * The result is stored compactly: the transitions of each state are one sorted run of symbols
+ * and targets in two flat arrays, so contains is a binary search per symbol and a transition
+ * costs six bytes. Build time and peak usage are recorded for reporting.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+public final class DFADictionary {
+
+    private static final int HEAP_SAMPLE_INTERVAL = 1 << 14;
+
+    private final int[] offsets;
+    private final char[] labels;
+    private final int[] targets;
+    private final boolean[] finals;
+    private final int start;
+    private final long words;
+
+    private final long buildNanos;
+    private final long peakStates;
+    private final long peakHeapBytes;
+
+    /** Construct from the compact arrays and build statistics */
+    private DFADictionary(int[] offsets, char[] labels, int[] targets, boolean[] finals, int start, long words,
+            long buildNanos, long peakStates, long peakHeapBytes) {
+        this.offsets = offsets;
+        this.labels = labels;
+        this.targets = targets;
+        this.finals = finals;
+        this.start = start;
+        this.words = words;
+        this.buildNanos = buildNanos;
+        this.peakStates = peakStates;
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    /**
+     * Builds the minimal automaton of a word list
+     * @param words the words in strictly increasing String.compareTo order, repeated words are skipped
+     * @return the dictionary
+     * @throws IllegalArgumentException if a word is smaller than the one before it
+     */
+    public static DFADictionary fromSortedWords(Iterator<? extends CharSequence> words) {
+        long start = System.nanoTime();
+        Runtime runtime = Runtime.getRuntime();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+        Builder builder = new Builder();
+        long peakHeap = 0;
+        while (words.hasNext()) {
+            builder.add(words.next());
+            if (builder.words % HEAP_SAMPLE_INTERVAL == 0) {
+                peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory() - baseline);
+            }
+        }
+        peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory() - baseline);
+        return builder.finish(System.nanoTime() - start, peakHeap);
+    }
+
+    /**
+     * Determines if a word is in the dictionary
+     * @param word the word
+     * @return true if the word was one of the words the dictionary was built from
+     */
+    public boolean contains(CharSequence word) {
+        int state = this.start;
+        for (int i = 0, n = word.length(); i < n; i++) {
+            int index = Arrays.binarySearch(this.labels, this.offsets[state], this.offsets[state + 1], word.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+            state = this.targets[index];
+        }
+        return this.finals[state];
+    }
+
+    /**
+     * Getter for the number of words
+     * @return number of distinct words added
+     */
+    public long size() {
+        return this.words;
+    }
+
+    /**
+     * Getter for the number of states of the minimal automaton
+     * @return state count
+     */
+    public int stateCount() {
+        return this.finals.length;
+    }
+
+    /**
+     * Getter for the number of transitions of the minimal automaton
+     * @return transition count
+     */
+    public int transitionCount() {
+        return this.labels.length;
+    }
+
+    /**
+     * Getter for the time taken by fromSortedWords, including reading the words
+     * @return build time in nanoseconds
+     */
+    public long getBuildNanos() {
+        return this.buildNanos;
+    }
+
+    /**
+     * Getter for the largest number of states alive at once during construction.
+     * For a minimal construction this stays close to the final state count.
+     * @return peak state count
+     */
+    public long getPeakStates() {
+        return this.peakStates;
+    }
+
+    /**
+     * Getter for the peak heap growth observed during construction. The heap is sampled
+     * every few thousand words and includes garbage not yet collected, so it is an upper
+     * estimate of what construction needs.
+     * @return peak heap growth in bytes
+     */
+    public long getPeakHeapBytes() {
+        return this.peakHeapBytes;
+    }
+
+    /**
+     * Estimates the heap used by the compact automaton, excluding object headers
+     * @return size in bytes
+     */
+    public long sizeInBytes() {
+        return 4L * this.offsets.length + 2L * this.labels.length + 4L * this.targets.length + this.finals.length;
+    }
+
+    /**
+     * Copies the automaton into a DFA, states are named q0, q1, ... with q0 as the
+     * start state and every state named before the states it leads to
+     * @return the DFA
+     */
+    public DFA toDFA() {
+        DFA dfa = new DFA();
+        TreeSet<Character> sigma = new TreeSet<>();
+        for (char c : this.labels) {
+            sigma.add(c);
+        }
+        for (char c : sigma) {
+            dfa.addSigma(c);
+        }
+        DFAState[] states = new DFAState[this.finals.length];
+        for (int q = 0; q < states.length; q++) {
+            states[q] = dfa.putState("q" + (this.start - q)); //States are frozen after their successors, the root last
+            if (this.finals[q]) {
+                dfa.setFinal(states[q].getName());
+            }
+        }
+        dfa.setStart("q0");
+        for (int q = 0; q < states.length; q++) {
+            for (int i = this.offsets[q]; i < this.offsets[q + 1]; i++) {
+                dfa.putTransition(states[q], states[this.targets[i]], this.labels[i]);
+            }
+        }
+        return dfa;
+    }
+
+    @Override
+    public String toString() {
+        return "DFADictionary[words=" + this.words + ", states=" + stateCount() + ", transitions=" + transitionCount()
+                + ", bytes=" + sizeInBytes() + ", buildMillis=" + this.buildNanos / 1_000_000
+                + ", peakStates=" + this.peakStates + ", peakHeapBytes=" + this.peakHeapBytes + "]";
+    }
+
+    /** Daciuk's incremental construction for sorted input */
+    private static final class Builder {
+        private static final long EMPTY = -1L;
+
+        // Frozen states in flat arrays, state q has the transitions from offsets[q] to offsets[q + 1]
+        private int[] offsets = new int[1024];
+        private char[] labels = new char[1024];
+        private int[] targets = new int[1024];
+        private boolean[] finals = new boolean[1024];
+        private int states;
+        private int transitions;
+
+        // Register of frozen states, open addressing over the hash of each state in the high and its number in the low half
+        private long[] register = new long[1024];
+        private int registered;
+
+        // Open path of the last word, path[i] is reached after its first i symbols
+        private Open[] path = new Open[16];
+        private final StringBuilder last = new StringBuilder();
+        private long words;
+        private long peakStates = 1;
+
+        Builder() {
+            Arrays.fill(this.register, EMPTY);
+            this.path[0] = new Open();
+        }
+
+        void add(CharSequence word) {
+            int common = 0;
+            int max = Math.min(word.length(), this.last.length());
+            while (common < max && word.charAt(common) == this.last.charAt(common)) {
+                common++;
+            }
+            if (this.words > 0) {
+                if (common == word.length() && common == this.last.length()) {
+                    return; //Repeated word
+                }
+                if (common == word.length()
+                        || (common < this.last.length() && word.charAt(common) < this.last.charAt(common))) {
+                    throw new IllegalArgumentException("words are not sorted: \"" + word + "\" after \"" + this.last + "\"");
+                }
+            }
+            replaceOrRegister(common);
+            if (this.path.length <= word.length()) {
+                this.path = Arrays.copyOf(this.path, Math.max(this.path.length * 2, word.length() + 1));
+            }
+            for (int i = common; i < word.length(); i++) { //Append the new suffix
+                this.path[i].append(word.charAt(i));
+                if (this.path[i + 1] == null) {
+                    this.path[i + 1] = new Open();
+                }
+                this.path[i + 1].reset();
+            }
+            this.path[word.length()].isFinal = true;
+            this.last.setLength(common);
+            this.last.append(word, common, word.length());
+            this.words++;
+            this.peakStates = Math.max(this.peakStates, this.states + word.length() + 1L);
+        }
+
+        /** Helper method to freeze the open path below depth, each state is replaced by its registered equivalent */
+        private void replaceOrRegister(int depth) {
+            for (int i = this.last.length(); i > depth; i--) {
+                Open parent = this.path[i - 1];
+                parent.targets[parent.size - 1] = freeze(this.path[i]);
+            }
+        }
+
+        /** Helper method to return the registered state equivalent to an open state, registering it if there is none */
+        private int freeze(Open open) {
+            int hash = hash(open);
+            int mask = this.register.length - 1;
+            int slot = mix(hash) & mask;
+            while (this.register[slot] != EMPTY) {
+                long entry = this.register[slot];
+                if ((int) (entry >>> 32) == hash && sameAs((int) entry, open)) {
+                    return (int) entry;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int q = append(open);
+            this.register[slot] = (long) hash << 32 | q;
+            if (++this.registered * 2 > this.register.length) {
+                rehash();
+            }
+            return q;
+        }
+
+        /** Helper method to copy an open state into the frozen arrays */
+        private int append(Open open) {
+            if (this.states + 2 > this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2);
+                this.finals = Arrays.copyOf(this.finals, this.finals.length * 2);
+            }
+            if (this.transitions + open.size > this.labels.length) {
+                int capacity = Math.max(this.labels.length * 2, this.transitions + open.size);
+                this.labels = Arrays.copyOf(this.labels, capacity);
+                this.targets = Arrays.copyOf(this.targets, capacity);
+            }
+            System.arraycopy(open.labels, 0, this.labels, this.transitions, open.size);
+            System.arraycopy(open.targets, 0, this.targets, this.transitions, open.size);
+            int q = this.states++;
+            this.finals[q] = open.isFinal;
+            this.offsets[q] = this.transitions;
+            this.transitions += open.size;
+            this.offsets[q + 1] = this.transitions;
+            return q;
+        }
+
+        /** Helper method to compare a frozen state with an open one */
+        private boolean sameAs(int q, Open open) {
+            int from = this.offsets[q];
+            if (this.finals[q] != open.isFinal || this.offsets[q + 1] - from != open.size) {
+                return false;
+            }
+            for (int i = 0; i < open.size; i++) {
+                if (this.labels[from + i] != open.labels[i] || this.targets[from + i] != open.targets[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Helper method to double the register */
+        private void rehash() {
+            long[] table = new long[this.register.length * 2];
+            Arrays.fill(table, EMPTY);
+            int mask = table.length - 1;
+            for (long entry : this.register) {
+                if (entry != EMPTY) {
+                    int slot = mix((int) (entry >>> 32)) & mask;
+                    while (table[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table[slot] = entry;
+                }
+            }
+            this.register = table;
+        }
+
+        private static int hash(Open open) {
+            int h = open.isFinal ? 1 : 0;
+            for (int i = 0; i < open.size; i++) {
+                h = step(step(h, open.labels[i]), open.targets[i]);
+            }
+            return h;
+        }
+
+        /** Helper method to fold one value into a hash, nonlinear so state numbers and symbols don't cancel out */
+        private static int step(int h, int value) {
+            return Integer.rotateLeft((h ^ value) * 0x9E3779B9, 15);
+        }
+
+        private static int mix(int h) {
+            h *= 0x85EBCA6B;
+            return h ^ (h >>> 16);
+        }
+
+        /** Helper method to freeze the rest of the path and the root, which is never registered */
+        DFADictionary finish(long buildNanos, long peakHeap) {
+            replaceOrRegister(0);
+            int root = append(this.path[0]);
+            return new DFADictionary(Arrays.copyOf(this.offsets, this.states + 1), Arrays.copyOf(this.labels, this.transitions),
+                    Arrays.copyOf(this.targets, this.transitions), Arrays.copyOf(this.finals, this.states), root,
+                    this.words, buildNanos, this.peakStates, peakHeap);
+        }
+    }
+
+    /** State on the open path, its last transition leads to the next state on the path */
+    private static final class Open {
+        boolean isFinal;
+        char[] labels = new char[4];
+        int[] targets = new int[4];
+        int size;
+
+        /** Adds a transition on a symbol larger than all existing ones, its target is set once frozen */
+        void append(char c) {
+            if (this.size == this.labels.length) {
+                this.labels = Arrays.copyOf(this.labels, this.size * 2);
+                this.targets = Arrays.copyOf(this.targets, this.size * 2);
+            }
+            this.labels[this.size++] = c;
+        }
+
+        void reset() {
+            this.isFinal = false;
+            this.size = 0;
+        }
+    }
+}
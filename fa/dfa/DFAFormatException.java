@@ -0,0 +1,45 @@
+package fa.dfa;
+
+import java.io.IOException;
+
+/**
+ * This exception signals malformed input to DFAReader.
+ * It records the line and column where the problem was found.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+public class DFAFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+    private final int column;
+
+    /**
+     * Construct new exception for a position in the input
+     * @param message description of the problem
+     * @param line 1-based line of the problem
+     * @param column 1-based column of the problem
+     */
+    public DFAFormatException(String message, int line, int column) {
+        super("line " + line + ", column " + column + ": " + message);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Getter for the line
+     * @return 1-based line of the problem
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Getter for the column
+     * @return 1-based column of the problem
+     */
+    public int getColumn() {
+        return this.column;
+    }
+}
@@ -0,0 +1,98 @@
+package fa.dfa;
+
+import java.util.Random;
+
+/**
+ * This class generates random Deterministic Finite Automata (DFA) and input workloads for them.
+ * Every result is determined by the seed, so a failing case can be reproduced from it.
+ *
+ * States are named q0, q1, ... with q0 as the start state, and Sigma is the consecutive
+ * symbols starting at 'a'. Automata are built through the bulk path, so millions of states
+ * are generated in seconds.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+public class DFAGenerator {
+
+    private final Random random;
+
+    /**
+     * Construct new generator
+     * @param seed seed of all generated automata and inputs
+     */
+    public DFAGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates a random DFA
+     * @param states number of states, at least 1
+     * @param sigmaSize number of symbols
+     * @param finalRatio probability of a state being final
+     * @param density probability of a transition being present, 1 gives a complete DFA
+     * @return the DFA
+     */
+    public DFA generate(int states, int sigmaSize, double finalRatio, double density) {
+        if (states < 1 || sigmaSize < 0 || sigmaSize > Character.MAX_VALUE - 'a') {
+            throw new IllegalArgumentException("need at least one state and at most " + (Character.MAX_VALUE - 'a') + " symbols");
+        }
+        DFA dfa = new DFA();
+        for (int i = 0; i < sigmaSize; i++) {
+            dfa.addSigma((char) ('a' + i));
+        }
+        DFAState[] created = new DFAState[states];
+        for (int q = 0; q < states; q++) {
+            created[q] = dfa.putState("q" + q);
+        }
+        dfa.setStart("q0");
+        for (int q = 0; q < states; q++) {
+            if (this.random.nextDouble() < finalRatio) {
+                dfa.setFinal(created[q].getName());
+            }
+            for (int i = 0; i < sigmaSize; i++) {
+                if (density >= 1 || this.random.nextDouble() < density) {
+                    dfa.putTransition(created[q], created[this.random.nextInt(states)], (char) ('a' + i));
+                }
+            }
+        }
+        return dfa;
+    }
+
+    /**
+     * Generates a workload of inputs for a DFA. A third are random strings over Sigma,
+     * a third follow transitions of the DFA from q0 so they often reach interesting states,
+     * and the rest are random strings with an occasional symbol outside of Sigma.
+     * @param dfa the DFA the inputs are meant for
+     * @param count number of inputs
+     * @param maxLength longest input
+     * @return the inputs
+     */
+    public String[] inputs(DFA dfa, int count, int maxLength) {
+        CompiledDFA table = dfa.compiled();
+        char[] symbols = table.symbols;
+        String[] inputs = new String[count];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.setLength(0);
+            int length = this.random.nextInt(maxLength + 1);
+            int kind = i % 3;
+            int state = table.start;
+            for (int j = 0; j < length; j++) {
+                if (symbols.length == 0 || (kind == 2 && this.random.nextInt(8) == 0)) {
+                    sb.append((char) ('A' + this.random.nextInt(26))); //Outside of the generated Sigma
+                    continue;
+                }
+                int col = this.random.nextInt(symbols.length);
+                if (kind == 1 && state != CompiledDFA.NONE) { //Walk along existing transitions
+                    for (int tries = 0; tries < symbols.length && table.next(state, col) == CompiledDFA.NONE; tries++) {
+                        col = (col + 1) % symbols.length;
+                    }
+                    state = table.next(state, col);
+                }
+                sb.append(symbols[col]);
+            }
+            inputs[i] = sb.toString();
+        }
+        return inputs;
+    }
+}
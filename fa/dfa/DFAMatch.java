@@ -0,0 +1,75 @@
+package fa.dfa;
+
+/**
+ * This class represents a substring of some text accepted by a Deterministic Finite Automata (DFA).
+ * A match covers the characters from its start index (inclusive) to its end index (exclusive).
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+public final class DFAMatch {
+
+    private final int start;
+    private final int end;
+
+    /**
+     * Construct new match over [start, end)
+     * @param start index of the first matched character
+     * @param end index after the last matched character
+     */
+    public DFAMatch(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Getter for the start index
+     * @return index of the first matched character
+     */
+    public int getStart() {
+        return this.start;
+    }
+
+    /**
+     * Getter for the end index
+     * @return index after the last matched character
+     */
+    public int getEnd() {
+        return this.end;
+    }
+
+    /**
+     * Number of matched characters
+     * @return end - start
+     */
+    public int length() {
+        return this.end - this.start;
+    }
+
+    /**
+     * Matched substring of the text that was searched
+     * @param text the searched text
+     * @return the matched characters
+     */
+    public String group(CharSequence text) {
+        return text.subSequence(this.start, this.end).toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof DFAMatch)) {
+            return false;
+        }
+        DFAMatch other = (DFAMatch) o;
+        return this.start == other.start && this.end == other.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.start + this.end;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + this.start + ", " + this.end + ")";
+    }
+}
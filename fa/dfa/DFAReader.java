@@ -0,0 +1,509 @@
+package fa.dfa;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * This class reads a Deterministic Finite Automata (DFA) back from text.
+ *
+ * The table format is the one printed by DFA.toString() and DFA.writeTo:
+ * Q = { a b }
+ * Sigma = { 0 1 }
+ * delta =
+ *		0	1
+ *	a	a	b
+ *	b	a	-
+ * q0 = a
+ * F = { b }
+ * where - marks a missing transition and q0 may be left empty.
+ *
+ * The edge-list format has one transition per line as from,symbol,to (commas or
+ * whitespace separate fields, fields with either are double quoted, as are names
+ * starting with # or %), so the output of DFA.writeCsv reads back as is. Lines starting with # are comments and the
+ * directives %start name, %final names..., %sigma symbols... and %state names...
+ * set q0, F, the alphabet order and states without transitions.
+ *
+ * Input is read in one streaming pass and the DFA is built through its bulk path,
+ * so loading is linear in the size of the text. Files are memory mapped.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+public final class DFAReader {
+
+    private DFAReader() {
+    }
+
+    /**
+     * Reads a DFA in the table format
+     * @param in source of the text, not closed
+     * @return the DFA
+     * @throws DFAFormatException if the text is malformed
+     * @throws IOException if in fails
+     */
+    public static DFA read(Reader in) throws IOException {
+        return parseTable(new Lexer(in));
+    }
+
+    /**
+     * Reads a UTF-8 file in the table format
+     * @param file path of the file
+     * @return the DFA
+     * @throws DFAFormatException if the text is malformed
+     * @throws IOException if the file can't be read
+     */
+    public static DFA read(Path file) throws IOException {
+        try (Reader in = new MappedFileReader(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads a DFA in the edge-list format
+     * @param in source of the text, not closed
+     * @return the DFA
+     * @throws DFAFormatException if the text is malformed
+     * @throws IOException if in fails
+     */
+    public static DFA readEdgeList(Reader in) throws IOException {
+        return parseEdgeList(new Lexer(in));
+    }
+
+    /**
+     * Reads a UTF-8 file in the edge-list format
+     * @param file path of the file
+     * @return the DFA
+     * @throws DFAFormatException if the text is malformed
+     * @throws IOException if the file can't be read
+     */
+    public static DFA readEdgeList(Path file) throws IOException {
+        try (Reader in = new MappedFileReader(file)) {
+            return readEdgeList(in);
+        }
+    }
+
+    /** Helper method to parse the table format */
+    private static DFA parseTable(Lexer lexer) throws IOException {
+        DFA dfa = new DFA();
+
+        lexer.expect("Q");
+        lexer.expect("=");
+        lexer.expect("{");
+        int stateCount = 0;
+        for (String name = lexer.required("state"); !name.equals("}"); name = lexer.required("state or }")) {
+            if (dfa.putState(name) == null) {
+                throw lexer.error("duplicate state " + name);
+            }
+            stateCount++;
+        }
+
+        lexer.expect("Sigma");
+        lexer.expect("=");
+        lexer.expect("{");
+        for (String symbol = lexer.required("symbol"); !symbol.equals("}"); symbol = lexer.required("symbol or }")) {
+            dfa.addSigma(lexer.symbol(symbol));
+        }
+        int sigmaSize = dfa.getSigma().size();
+
+        lexer.expect("delta");
+        lexer.expect("=");
+        char[] header = new char[sigmaSize];
+        for (int col = 0; col < sigmaSize; col++) {
+            header[col] = lexer.symbol(lexer.required("symbol"));
+            if (!dfa.getSigma().contains(header[col])) {
+                throw lexer.error("symbol " + header[col] + " is not in Sigma");
+            }
+            for (int prev = 0; prev < col; prev++) {
+                if (header[prev] == header[col]) {
+                    throw lexer.error("duplicate column " + header[col]);
+                }
+            }
+        }
+
+        for (int row = 0; row < stateCount; row++) { //Each row names its state, then one cell per column
+            DFAState from = lexer.state(dfa, lexer.required("state"));
+            for (int col = 0; col < sigmaSize; col++) {
+                String cell = lexer.required("state or -");
+                if (!cell.equals("-")) {
+                    dfa.putTransition(from, lexer.state(dfa, cell), header[col]);
+                }
+            }
+        }
+
+        lexer.expect("q0");
+        lexer.expect("=");
+        if (!lexer.atLineEnd()) { //q0 is printed empty when there is no start state
+            dfa.setStart(lexer.state(dfa, lexer.required("state")).getName());
+        }
+
+        lexer.expect("F");
+        lexer.expect("=");
+        lexer.expect("{");
+        for (String name = lexer.required("state"); !name.equals("}"); name = lexer.required("state or }")) {
+            dfa.setFinal(lexer.state(dfa, name).getName());
+        }
+
+        if (lexer.next() != null) {
+            throw lexer.error("unexpected text after F");
+        }
+        return dfa;
+    }
+
+    /** Helper method to parse the edge-list format */
+    private static DFA parseEdgeList(Lexer lexer) throws IOException {
+        DFA dfa = new DFA();
+        List<String> fields = new ArrayList<>();
+        boolean first = true;
+        String start = null;
+        List<String> finals = new ArrayList<>();
+
+        while (lexer.fields(fields)) {
+            if (fields.isEmpty()) {
+                continue;
+            }
+            String head = fields.get(0);
+            if (first && fields.size() == 3 && head.equals("from") && fields.get(1).equals("symbol")
+                    && fields.get(2).equals("to")) {
+                first = false; //CSV header row
+                continue;
+            }
+            first = false;
+
+            if (head.startsWith("%") && !lexer.isQuoted(0)) { //A quoted %name is a state
+                switch (head) {
+                    case "%start":
+                        if (fields.size() != 2) {
+                            throw lexer.fieldError(0, "%start takes one state");
+                        }
+                        start = fields.get(1);
+                        break;
+                    case "%final":
+                        finals.addAll(fields.subList(1, fields.size()));
+                        break;
+                    case "%sigma":
+                        for (int i = 1; i < fields.size(); i++) {
+                            dfa.addSigma(lexer.fieldSymbol(i, fields.get(i)));
+                        }
+                        break;
+                    case "%state":
+                        for (int i = 1; i < fields.size(); i++) {
+                            stateOrNew(dfa, fields.get(i));
+                        }
+                        break;
+                    default:
+                        throw lexer.fieldError(0, "unknown directive " + head);
+                }
+                continue;
+            }
+
+            if (fields.size() != 3) {
+                throw lexer.fieldError(0, "expected from,symbol,to but found " + fields.size() + " fields");
+            }
+            DFAState from = stateOrNew(dfa, head);
+            char symbol = lexer.fieldSymbol(1, fields.get(1));
+            DFAState to = stateOrNew(dfa, fields.get(2));
+            dfa.addSigma(symbol);
+            dfa.putTransition(from, to, symbol);
+        }
+
+        if (start != null) {
+            dfa.setStart(stateOrNew(dfa, start).getName());
+        }
+        for (String name : finals) {
+            dfa.setFinal(stateOrNew(dfa, name).getName());
+        }
+        return dfa;
+    }
+
+    /** Helper method to return a state by name, adding it on first use */
+    private static DFAState stateOrNew(DFA dfa, String name) {
+        DFAState state = dfa.getStateByName(name);
+        return state != null ? state : dfa.putState(name);
+    }
+
+    /**
+     * Buffered tokenizer that keeps track of line and column.
+     * Tokens are whitespace separated for the table format,
+     * fields are comma or whitespace separated for the edge list.
+     */
+    private static final class Lexer {
+        private final Reader in;
+        private final char[] buffer = new char[1 << 16];
+        private final StringBuilder token = new StringBuilder();
+        private final List<Integer> fieldColumns = new ArrayList<>();
+        private final BitSet quotedFields = new BitSet();
+        private int pos;
+        private int limit;
+        private int line = 1;
+        private int column = 1;
+        private int tokenLine;
+        private int tokenColumn;
+
+        Lexer(Reader in) {
+            this.in = in;
+        }
+
+        /** Next whitespace separated token or null at the end of the input */
+        String next() throws IOException {
+            int c;
+            while ((c = peek()) >= 0 && Character.isWhitespace(c)) {
+                read();
+            }
+            this.tokenLine = this.line;
+            this.tokenColumn = this.column;
+            if (c < 0) {
+                return null;
+            }
+            this.token.setLength(0);
+            while ((c = peek()) >= 0 && !Character.isWhitespace(c)) {
+                this.token.append((char) read());
+            }
+            return this.token.toString();
+        }
+
+        /** Next token, which must exist */
+        String required(String what) throws IOException {
+            String next = next();
+            if (next == null) {
+                throw error("expected " + what + " but input ended");
+            }
+            return next;
+        }
+
+        /** Reads a token that must equal the keyword */
+        void expect(String keyword) throws IOException {
+            String next = required(keyword);
+            if (!next.equals(keyword)) {
+                throw error("expected " + keyword + " but found " + next);
+            }
+        }
+
+        /** Determines if only blanks are left on the current line */
+        boolean atLineEnd() throws IOException {
+            int c;
+            while (isBlank(c = peek())) {
+                read();
+            }
+            return c < 0 || c == '\n' || c == '\r';
+        }
+
+        /** Converts the last token to a symbol */
+        char symbol(String token) throws DFAFormatException {
+            if (token.length() != 1) {
+                throw error("symbol must be a single character but found " + token);
+            }
+            return token.charAt(0);
+        }
+
+        /** Looks up the state named by the last token */
+        DFAState state(DFA dfa, String name) throws DFAFormatException {
+            DFAState state = dfa.getStateByName(name);
+            if (state == null) {
+                throw error("unknown state " + name);
+            }
+            return state;
+        }
+
+        /**
+         * Reads the fields of the next line, skipping comments.
+         * @return false at the end of the input
+         */
+        boolean fields(List<String> fields) throws IOException {
+            fields.clear();
+            this.fieldColumns.clear();
+            this.quotedFields.clear();
+            this.tokenLine = this.line;
+            int c = peek();
+            if (c < 0) {
+                return false;
+            }
+            while (true) {
+                while (isBlank(c = peek())) {
+                    read();
+                }
+                if (c == '#' && fields.isEmpty()) { //Comment line
+                    while ((c = peek()) >= 0 && c != '\n') {
+                        read();
+                    }
+                }
+                if (c < 0 || c == '\n' || c == '\r') {
+                    break;
+                }
+                this.fieldColumns.add(this.column);
+                this.token.setLength(0);
+                if (c == '"') {
+                    this.quotedFields.set(fields.size());
+                    read();
+                    while (true) {
+                        c = read();
+                        if (c < 0) {
+                            this.tokenColumn = this.fieldColumns.get(this.fieldColumns.size() - 1);
+                            throw error("unterminated quoted field");
+                        }
+                        if (c == '"') {
+                            if (peek() != '"') {
+                                break;
+                            }
+                            read(); //Doubled quote
+                        }
+                        this.token.append((char) c);
+                    }
+                } else {
+                    while ((c = peek()) >= 0 && c != ',' && !Character.isWhitespace(c)) {
+                        this.token.append((char) read());
+                    }
+                }
+                fields.add(this.token.toString());
+                while (isBlank(c = peek())) {
+                    read();
+                }
+                if (c == ',') {
+                    read();
+                }
+            }
+            if (c == '\r') {
+                read();
+            }
+            if (peek() == '\n') {
+                read();
+            }
+            return true;
+        }
+
+        /** Converts a field to a symbol */
+        char fieldSymbol(int index, String field) throws DFAFormatException {
+            if (field.length() != 1) {
+                throw fieldError(index, "symbol must be a single character but found " + field);
+            }
+            return field.charAt(0);
+        }
+
+        /** Determines if a field of the last line was double quoted */
+        boolean isQuoted(int index) {
+            return this.quotedFields.get(index);
+        }
+
+        /** Error at a field of the last line */
+        DFAFormatException fieldError(int index, String message) {
+            return new DFAFormatException(message, this.tokenLine, this.fieldColumns.get(index));
+        }
+
+        /** Error at the last token */
+        DFAFormatException error(String message) {
+            return new DFAFormatException(message, this.tokenLine, this.tokenColumn);
+        }
+
+        /** Whitespace other than a line break */
+        private static boolean isBlank(int c) {
+            return c >= 0 && c != '\n' && c != '\r' && Character.isWhitespace(c);
+        }
+
+        private int peek() throws IOException {
+            if (this.pos == this.limit && !fill()) {
+                return -1;
+            }
+            return this.buffer[this.pos];
+        }
+
+        private int read() throws IOException {
+            int c = peek();
+            if (c >= 0) {
+                this.pos++;
+                if (c == '\n') {
+                    this.line++;
+                    this.column = 1;
+                } else {
+                    this.column++;
+                }
+            }
+            return c;
+        }
+
+        private boolean fill() throws IOException {
+            int n;
+            do {
+                n = this.in.read(this.buffer, 0, this.buffer.length);
+            } while (n == 0);
+            this.pos = 0;
+            this.limit = Math.max(n, 0);
+            return n > 0;
+        }
+    }
+
+    /**
+     * Reader that decodes a memory mapped UTF-8 file. Files larger
+     * than one mapping are read through successive windows.
+     */
+    private static final class MappedFileReader extends Reader {
+        private static final long WINDOW = 1L << 30;
+
+        private final FileChannel channel;
+        private final long size;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        private MappedByteBuffer window;
+        private long windowStart;
+        private boolean flushed;
+
+        MappedFileReader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = this.channel.size();
+            map(0);
+        }
+
+        private void map(long position) throws IOException {
+            this.windowStart = position;
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, this.size - position));
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (this.flushed) { //The decoder is done once flushed
+                return -1;
+            }
+            CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+            while (true) {
+                boolean last = this.windowStart + this.window.limit() == this.size;
+                CoderResult result = this.decoder.decode(this.window, out, last);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                if (out.position() > off || result.isOverflow()) {
+                    return out.position() - off;
+                }
+                if (!last) { //Move the window past what was decoded, keeping any partial character
+                    map(this.windowStart + this.window.position());
+                    continue;
+                }
+                if (!this.flushed) {
+                    this.flushed = true;
+                    this.decoder.flush(out);
+                    if (out.position() > off) {
+                        return out.position() - off;
+                    }
+                }
+                return -1;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package fa.dfa;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * This class draws strings of one length uniformly at random from the language of a
+ * Deterministic Finite Automata (DFA).
+ *
+ * Construction counts, for every state and every k up to the length, the strings of
+ * length k that lead from the state to a final state, in O(length * |Q| * |Sigma|) time
+ * and O(length * |Q|) memory. A sample then walks from q0 picking each symbol with
+ * probability proportional to the count behind it, which is O(length * |Sigma|).
+ * Counts are kept as long values and switch to BigInteger when they overflow.
+ *
+ * The sampler works on the DFA as it was when the sampler was created.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+public final class DFASampler {
+
+    private final CompiledDFA dfa;
+    private final int length;
+    private long[][] counts;
+    private BigInteger[][] bigCounts;
+
+    /**
+     * Construct the count tables
+     * @param dfa snapshot to sample from
+     * @param length length of the sampled strings
+     */
+    DFASampler(CompiledDFA dfa, int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+        this.dfa = dfa;
+        this.length = length;
+        try {
+            this.counts = longCounts();
+        } catch (ArithmeticException e) { //More strings than fit in a long
+            this.bigCounts = bigCounts();
+        }
+    }
+
+    /**
+     * Getter for the length of sampled strings
+     * @return the length
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Number of accepted strings of the sampled length
+     * @return the count
+     */
+    public BigInteger count() {
+        if (this.dfa.start == CompiledDFA.NONE) {
+            return BigInteger.ZERO;
+        }
+        return this.counts != null ? BigInteger.valueOf(this.counts[this.length][this.dfa.start])
+                : this.bigCounts[this.length][this.dfa.start];
+    }
+
+    /**
+     * Draws one accepted string, every accepted string of the length is equally likely
+     * @param random source of randomness
+     * @return the string or null if no string of the length is accepted
+     */
+    public String sample(Random random) {
+        if (count().signum() == 0) {
+            return null;
+        }
+        char[] chars = new char[this.length];
+        int state = this.dfa.start;
+        int sigmaSize = this.dfa.symbols.length;
+        if (this.counts != null) {
+            for (int k = this.length; k > 0; k--) {
+                long r = random.nextLong(this.counts[k][state]);
+                int col = 0;
+                for (;; col++) { //Pick the symbol whose share of the count contains r
+                    int next = this.dfa.next(state, col);
+                    long behind = next == CompiledDFA.NONE ? 0 : this.counts[k - 1][next];
+                    if (r < behind) {
+                        break;
+                    }
+                    r -= behind;
+                }
+                chars[this.length - k] = this.dfa.symbols[col];
+                state = this.dfa.next(state, col);
+            }
+        } else {
+            for (int k = this.length; k > 0; k--) {
+                BigInteger r = below(this.bigCounts[k][state], random);
+                int col = 0;
+                for (; col < sigmaSize; col++) {
+                    int next = this.dfa.next(state, col);
+                    BigInteger behind = next == CompiledDFA.NONE ? BigInteger.ZERO : this.bigCounts[k - 1][next];
+                    if (r.compareTo(behind) < 0) {
+                        break;
+                    }
+                    r = r.subtract(behind);
+                }
+                chars[this.length - k] = this.dfa.symbols[col];
+                state = this.dfa.next(state, col);
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Endless stream of independent samples
+     * @param random source of randomness
+     * @return the samples, empty if no string of the length is accepted
+     */
+    public Stream<String> samples(Random random) {
+        if (count().signum() == 0) {
+            return Stream.empty();
+        }
+        return Stream.generate(() -> sample(random));
+    }
+
+    /** Helper method to count paths in longs, throws ArithmeticException on overflow */
+    private long[][] longCounts() {
+        int states = this.dfa.states.length;
+        long[][] table = new long[this.length + 1][states];
+        for (int q = 0; q < states; q++) {
+            table[0][q] = this.dfa.finals[q] ? 1 : 0;
+        }
+        for (int k = 1; k <= this.length; k++) {
+            long[] previous = table[k - 1];
+            long[] current = table[k];
+            for (int q = 0; q < states; q++) {
+                long sum = 0;
+                for (int col = 0; col < this.dfa.symbols.length; col++) {
+                    int next = this.dfa.next(q, col);
+                    if (next != CompiledDFA.NONE) {
+                        sum = Math.addExact(sum, previous[next]);
+                    }
+                }
+                current[q] = sum;
+            }
+        }
+        return table;
+    }
+
+    /** Helper method to count paths in BigIntegers */
+    private BigInteger[][] bigCounts() {
+        int states = this.dfa.states.length;
+        BigInteger[][] table = new BigInteger[this.length + 1][states];
+        for (int q = 0; q < states; q++) {
+            table[0][q] = this.dfa.finals[q] ? BigInteger.ONE : BigInteger.ZERO;
+        }
+        for (int k = 1; k <= this.length; k++) {
+            for (int q = 0; q < states; q++) {
+                BigInteger sum = BigInteger.ZERO;
+                for (int col = 0; col < this.dfa.symbols.length; col++) {
+                    int next = this.dfa.next(q, col);
+                    if (next != CompiledDFA.NONE) {
+                        sum = sum.add(table[k - 1][next]);
+                    }
+                }
+                table[k][q] = sum;
+            }
+        }
+        return table;
+    }
+
+    /** Helper method to draw a uniform BigInteger in [0, bound) */
+    private static BigInteger below(BigInteger bound, Random random) {
+        BigInteger r;
+        do {
+            r = new BigInteger(bound.bitLength(), random);
+        } while (r.compareTo(bound) >= 0);
+        return r;
+    }
+}
@@ -0,0 +1,361 @@
+package fa.dfa;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * This class finds substrings of a text accepted by a Deterministic Finite Automata (DFA).
+ * Matches are leftmost-longest and non-overlapping.
+ *
+ * A forward Sigma* L automaton finds where matches end, which rejects texts without a match in
+ * one pass. find then runs the DFA itself from every position in order, one thread per start, and
+ * stops as soon as no thread that started at or before the leftmost match can get any longer, so it
+ * reads only as far past its match as earlier candidates stay alive. findAll runs the forward
+ * automaton to the last end, marks every position where a match starts with a backward
+ * Sigma* reverse(L) automaton, and gets the longest match from every start in a single forward pass.
+ * In both, threads that reach the same state have the same future and are merged.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class DFASearch {
+
+    private final CompiledDFA dfa;
+    private final SubsetAutomaton forward;
+    private final SubsetAutomaton backward;
+    private final Slots slots;
+
+    /**
+     * Construct the search automata for a DFA snapshot
+     * @param dfa snapshot to search with
+     */
+    DFASearch(CompiledDFA dfa) {
+        this.dfa = dfa;
+        this.forward = SubsetAutomaton.forward(dfa, true);
+        this.backward = SubsetAutomaton.backward(dfa, true);
+        this.slots = new Slots(dfa.states.length);
+    }
+
+    /**
+     * Finds the leftmost-longest match starting at or after from
+     * @param text text to search
+     * @param from index to start searching at
+     * @return the match or null if there is none
+     */
+    DFAMatch find(CharSequence text, int from) {
+        if (firstEnd(text, from) < 0) {
+            return null;
+        }
+        boolean[] live = this.dfa.live();
+        int[] states = new int[16];
+        int[] starts = new int[16];
+        int[] nextStates = new int[16];
+        int[] nextStarts = new int[16];
+        int size = 0;
+        int bestStart = -1;
+        int bestEnd = -1;
+        synchronized (this.slots) {
+            int[] slotStep = this.slots.step;
+            for (int i = from, n = text.length(); ; i++) {
+                if (bestStart < 0) { //No match yet, add a thread from q0 unless an earlier start is in q0 already
+                    boolean inStart = false;
+                    for (int t = 0; t < size && !inStart; t++) {
+                        inStart = states[t] == this.dfa.start;
+                    }
+                    if (!inStart) {
+                        if (size == states.length) {
+                            states = Arrays.copyOf(states, size * 2);
+                            starts = Arrays.copyOf(starts, size * 2);
+                            nextStates = Arrays.copyOf(nextStates, size * 2);
+                            nextStarts = Arrays.copyOf(nextStarts, size * 2);
+                        }
+                        states[size] = this.dfa.start;
+                        starts[size++] = i;
+                    }
+                }
+                for (int t = 0; t < size; t++) { //Threads are in order of their starts, the first final one is leftmost
+                    if (this.dfa.finals[states[t]]) {
+                        bestStart = starts[t];
+                        bestEnd = i;
+                        size = t + 1; //Later starts can't win any more
+                        break;
+                    }
+                }
+                if (i == n) {
+                    break;
+                }
+
+                int col = this.dfa.column(text.charAt(i));
+                int step = this.slots.nextStep();
+                int nextSize = 0;
+                for (int t = 0; t < size && col != CompiledDFA.NONE; t++) {
+                    int next = this.dfa.next(states[t], col);
+                    if (next == CompiledDFA.NONE || !live[next] || slotStep[next] == step) {
+                        continue; //Dead, or an earlier start reached the same state and wins
+                    }
+                    slotStep[next] = step;
+                    nextStates[nextSize] = next;
+                    nextStarts[nextSize++] = starts[t];
+                }
+                int[] swap = states;
+                states = nextStates;
+                nextStates = swap;
+                swap = starts;
+                starts = nextStarts;
+                nextStarts = swap;
+                size = nextSize;
+                if (size == 0 && bestStart >= 0) { //The match can't get longer and nothing before it can match
+                    break;
+                }
+            }
+        }
+        return new DFAMatch(bestStart, bestEnd);
+    }
+
+    /**
+     * Finds all non-overlapping leftmost-longest matches
+     * @param text text to search
+     * @param matches list the matches are added to, null to only count them
+     * @return number of matches
+     */
+    int findAll(CharSequence text, List<DFAMatch> matches) {
+        int last = lastEnd(text);
+        if (last < 0) {
+            return 0;
+        }
+        BitSet starts = starts(text, last);
+        int[] ends = longestEnds(text, starts, last);
+        int count = 0;
+        int position = 0;
+        int k = 0;
+        for (int start = starts.nextSetBit(0); start >= 0; start = starts.nextSetBit(start + 1), k++) {
+            if (start < position) { //Overlaps the previous match
+                continue;
+            }
+            int end = ends[k];
+            if (matches != null) {
+                matches.add(new DFAMatch(start, end));
+            }
+            count++;
+            position = end > start ? end : start + 1; //Step over empty matches
+        }
+        return count;
+    }
+
+    /** Helper method to return the first index where a match starting at or after from ends, or -1 */
+    private int firstEnd(CharSequence text, int from) {
+        synchronized (this.forward) {
+            int state = this.forward.initial();
+            if (this.forward.isAccepting(state)) {
+                return from;
+            }
+            for (int i = from, n = text.length(); i < n; i++) {
+                state = this.forward.step(state, this.dfa.column(text.charAt(i)));
+                if (this.forward.isAccepting(state)) {
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /** Helper method to return the last index where a match ends, or -1 */
+    private int lastEnd(CharSequence text) {
+        synchronized (this.forward) {
+            int state = this.forward.initial();
+            int last = this.forward.isAccepting(state) ? 0 : -1;
+            for (int i = 0, n = text.length(); i < n; i++) {
+                state = this.forward.step(state, this.dfa.column(text.charAt(i)));
+                if (this.forward.isAccepting(state)) {
+                    last = i + 1;
+                }
+            }
+            return last;
+        }
+    }
+
+    /** Helper method to mark each index in [0, last] where a match ending at or before last starts */
+    private BitSet starts(CharSequence text, int last) {
+        synchronized (this.backward) {
+            BitSet starts = new BitSet(last + 1);
+            int state = this.backward.initial();
+            if (this.backward.isAccepting(state)) {
+                starts.set(last);
+            }
+            for (int i = last - 1; i >= 0; i--) {
+                state = this.backward.step(state, this.dfa.column(text.charAt(i)));
+                if (this.backward.isAccepting(state)) {
+                    starts.set(i);
+                }
+            }
+            return starts;
+        }
+    }
+
+    /**
+     * Helper method to find the longest match from every start in one forward pass, O(|text| * threads).
+     * A thread runs the DFA from each start. Threads that reach the same state have the same future,
+     * so they merge into one and their groups are joined under a new group: every end found later is
+     * recorded on the new group, and the longest end of a start is the largest end along its chain of
+     * groups. Returns the ends in the order of the starts.
+     */
+    private int[] longestEnds(CharSequence text, BitSet starts, int last) {
+        boolean[] live = this.dfa.live();
+        int[] ends = new int[starts.cardinality()];
+        int[] groupOfStart = new int[ends.length];
+        Groups groups = new Groups();
+
+        int[] states = new int[16];
+        int[] owners = new int[16];
+        int[] nextStates = new int[16];
+        int[] nextOwners = new int[16];
+        int size = 0;
+        int k = 0;
+        synchronized (this.slots) {
+            int[] slotStep = this.slots.step;
+            int[] slotIndex = this.slots.index;
+            for (int i = starts.nextSetBit(0); i >= 0 && i <= last; ) {
+                if (starts.get(i)) { //A match starts here, add a thread from q0 unless one is in q0 already
+                    int group = groups.add();
+                    groupOfStart[k++] = group;
+                    int at = -1;
+                    for (int t = 0; t < size && at < 0; t++) {
+                        if (states[t] == this.dfa.start) {
+                            at = t;
+                        }
+                    }
+                    if (at < 0) {
+                        if (size == states.length) {
+                            states = Arrays.copyOf(states, size * 2);
+                            owners = Arrays.copyOf(owners, size * 2);
+                            nextStates = Arrays.copyOf(nextStates, size * 2);
+                            nextOwners = Arrays.copyOf(nextOwners, size * 2);
+                        }
+                        states[size] = this.dfa.start;
+                        owners[size++] = group;
+                        at = size - 1;
+                    } else {
+                        owners[at] = groups.join(owners[at], group);
+                    }
+                    if (this.dfa.finals[this.dfa.start]) {
+                        groups.end(owners[at], i);
+                    }
+                }
+                if (i == last) {
+                    break;
+                }
+
+                int col = this.dfa.column(text.charAt(i));
+                int step = this.slots.nextStep();
+                int nextSize = 0;
+                for (int t = 0; t < size && col != CompiledDFA.NONE; t++) {
+                    int next = this.dfa.next(states[t], col);
+                    if (next == CompiledDFA.NONE || !live[next]) {
+                        continue; //No match can end through this thread any more
+                    }
+                    if (slotStep[next] == step) { //Same state as an earlier thread, same future
+                        int at = slotIndex[next];
+                        nextOwners[at] = groups.join(nextOwners[at], owners[t]);
+                    } else {
+                        slotStep[next] = step;
+                        slotIndex[next] = nextSize;
+                        nextStates[nextSize] = next;
+                        nextOwners[nextSize++] = owners[t];
+                    }
+                }
+                int[] swap = states;
+                states = nextStates;
+                nextStates = swap;
+                swap = owners;
+                owners = nextOwners;
+                nextOwners = swap;
+                size = nextSize;
+                i++;
+                for (int t = 0; t < size; t++) {
+                    if (this.dfa.finals[states[t]]) {
+                        groups.end(owners[t], i);
+                    }
+                }
+                if (size == 0) { //Nothing running, skip ahead to the next start
+                    i = starts.nextSetBit(i);
+                }
+            }
+        }
+        groups.resolve();
+        for (int j = 0; j < ends.length; j++) {
+            ends[j] = groups.longest(groupOfStart[j]);
+        }
+        return ends;
+    }
+
+    /** Scratch arrays of find and longestEnds indexed by DFA state, the step a state was last reached in and by which thread */
+    private static final class Slots {
+        final int[] step;
+        final int[] index;
+        private int current;
+
+        Slots(int states) {
+            this.step = new int[states];
+            this.index = new int[states];
+        }
+
+        /** Stamp of a new step, every stamp handed out before is stale */
+        int nextStep() {
+            if (this.current == Integer.MAX_VALUE) { //Wrapped around
+                Arrays.fill(this.step, 0);
+                this.current = 0;
+            }
+            return ++this.current;
+        }
+    }
+
+    /**
+     * Groups of starts whose threads merged. Each group records the last end found while it ran,
+     * joining two groups creates a parent, so parents always have larger ids than their children.
+     */
+    private static final class Groups {
+        private int[] parent = new int[16];
+        private int[] end = new int[16];
+        private int size;
+
+        /** Creates a group without parent or end */
+        int add() {
+            if (this.size == this.parent.length) {
+                this.parent = Arrays.copyOf(this.parent, this.size * 2);
+                this.end = Arrays.copyOf(this.end, this.size * 2);
+            }
+            this.parent[this.size] = -1;
+            this.end[this.size] = -1;
+            return this.size++;
+        }
+
+        /** Joins two running groups under a new one and returns it */
+        int join(int a, int b) {
+            if (a == b) {
+                return a;
+            }
+            int joined = add();
+            this.parent[a] = joined;
+            this.parent[b] = joined;
+            return joined;
+        }
+
+        /** Records an end, ends are found in increasing order */
+        void end(int group, int position) {
+            this.end[group] = position;
+        }
+
+        /** Turns the end of every group into the largest end along its chain of parents */
+        void resolve() {
+            for (int g = this.size - 1; g >= 0; g--) {
+                if (this.parent[g] >= 0) {
+                    this.end[g] = Math.max(this.end[g], this.end[this.parent[g]]);
+                }
+            }
+        }
+
+        int longest(int group) {
+            return this.end[group];
+        }
+    }
+}
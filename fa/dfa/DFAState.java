@@ -1,5 +1,6 @@
 package fa.dfa;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This class represent an individual state in a Deterministic Finite Automata (DFA).
@@ -56,6 +57,14 @@ public class DFAState extends fa.State {
         return new HashMap<>(this.delta);
     }
 
+    /**
+     * Get transition table for this state without copying it
+     * @return the live next state transitions from current state
+     */
+    Map<Character, DFAState> transitions() {
+        return this.delta;
+    }
+
 
 
 
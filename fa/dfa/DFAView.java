@@ -0,0 +1,46 @@
+package fa.dfa;
+
+import fa.FAInterface;
+
+/**
+ * This class is the base of read-only views over a Deterministic Finite Automata (DFA).
+ * A view shares the states and delta of the DFA it was created from and follows later
+ * changes to it, so creating one never copies the automaton. The methods that modify
+ * an automaton throw UnsupportedOperationException.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+abstract class DFAView implements FAInterface {
+
+    /**
+     * Views can't add states
+     * @throws UnsupportedOperationException always
+     */
+    public boolean addState(String name) {
+        throw new UnsupportedOperationException("read-only view");
+    }
+
+    /**
+     * Views can't change F
+     * @throws UnsupportedOperationException always
+     */
+    public boolean setFinal(String name) {
+        throw new UnsupportedOperationException("read-only view");
+    }
+
+    /**
+     * Views can't change q0
+     * @throws UnsupportedOperationException always
+     */
+    public boolean setStart(String name) {
+        throw new UnsupportedOperationException("read-only view");
+    }
+
+    /**
+     * Views can't change Sigma
+     * @throws UnsupportedOperationException always
+     */
+    public void addSigma(char symbol) {
+        throw new UnsupportedOperationException("read-only view");
+    }
+}
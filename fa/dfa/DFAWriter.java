@@ -0,0 +1,201 @@
+package fa.dfa;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class streams the textual forms of a Deterministic Finite Automata (DFA).
+ * Every format is written one state at a time straight to an Appendable, nothing
+ * is allocated per transition so even very large DFAs print in constant memory.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class DFAWriter {
+
+    private final Set<DFAState> states;
+    private final Set<Character> sigma;
+    private final Map<DFAState, Map<Character, DFAState>> transitionTable;
+    private final DFAState startingState;
+    private final Set<DFAState> finalStates;
+
+    /**
+     * Construct a writer over the DFA's 5-tuple
+     * @param states Q in insertion order
+     * @param sigma the alphabet in insertion order
+     * @param transitionTable delta of the DFA
+     * @param startingState q0, may be null
+     * @param finalStates F
+     */
+    DFAWriter(Set<DFAState> states, Set<Character> sigma, Map<DFAState, Map<Character, DFAState>> transitionTable,
+            DFAState startingState, Set<DFAState> finalStates) {
+        this.states = states;
+        this.sigma = sigma;
+        this.transitionTable = transitionTable;
+        this.startingState = startingState;
+        this.finalStates = finalStates;
+    }
+
+    /**
+     * Writes the format of DFA.toString(), missing transitions are printed as -
+     * @param out destination
+     * @throws IOException if out fails
+     */
+    void writeTable(Appendable out) throws IOException {
+        out.append(" Q = { ");
+        for (DFAState state : this.states) out.append(state.getName()).append(' '); //Print existing states
+        out.append("}\n");
+
+        out.append("Sigma = { ");
+        for (Character c : this.sigma) out.append(c).append(' '); //Print alphabet
+        out.append("}\n");
+
+        out.append("delta =\n\t");
+        for (Character c : this.sigma) out.append(c).append('\t');
+        out.append('\n');
+
+        for (DFAState state : this.states) { //Print transition table one row at a time
+            out.append(state.getName()).append('\t');
+            Map<Character, DFAState> transitions = this.transitionTable.get(state);
+            for (Character c : this.sigma) {
+                DFAState next = transitions == null ? null : transitions.get(c);
+                out.append(next == null ? "-" : next.getName()).append('\t');
+            }
+            out.append('\n');
+        }
+
+        out.append("q0 = ");
+        if (this.startingState != null) out.append(this.startingState.getName()); //Print starting state
+        out.append('\n');
+        out.append("F = { ");
+        for (DFAState finalState : this.finalStates) out.append(finalState.getName()).append(' '); //Print accepting states
+        out.append("}\n");
+    }
+
+    /**
+     * Writes a GraphViz digraph with one edge per transition
+     * @param out destination
+     * @throws IOException if out fails
+     */
+    void writeDot(Appendable out) throws IOException {
+        out.append("digraph DFA {\n");
+        out.append("\trankdir=LR;\n");
+        out.append("\tnode [shape=circle];\n");
+        for (DFAState finalState : this.finalStates) {
+            out.append('\t');
+            quoteDot(out, finalState.getName());
+            out.append(" [shape=doublecircle];\n");
+        }
+        if (this.startingState != null) {
+            out.append("\t__start [shape=point];\n");
+            out.append("\t__start -> ");
+            quoteDot(out, this.startingState.getName());
+            out.append(";\n");
+        }
+        for (DFAState state : this.states) {
+            Map<Character, DFAState> transitions = this.transitionTable.get(state);
+            if (transitions == null) {
+                out.append('\t');
+                quoteDot(out, state.getName());
+                out.append(";\n");
+                continue;
+            }
+            for (Character c : this.sigma) {
+                DFAState next = transitions.get(c);
+                if (next != null) {
+                    out.append('\t');
+                    quoteDot(out, state.getName());
+                    out.append(" -> ");
+                    quoteDot(out, next.getName());
+                    out.append(" [label=");
+                    quoteDot(out, c);
+                    out.append("];\n");
+                }
+            }
+        }
+        out.append("}\n");
+    }
+
+    /**
+     * Writes the transitions as CSV rows of from,symbol,to after a header row
+     * @param out destination
+     * @throws IOException if out fails
+     */
+    void writeCsv(Appendable out) throws IOException {
+        out.append("from,symbol,to\n");
+        for (DFAState state : this.states) {
+            Map<Character, DFAState> transitions = this.transitionTable.get(state);
+            if (transitions == null) {
+                continue;
+            }
+            for (Character c : this.sigma) {
+                DFAState next = transitions.get(c);
+                if (next != null) {
+                    quoteCsv(out, state.getName());
+                    out.append(',');
+                    quoteCsv(out, c);
+                    out.append(',');
+                    quoteCsv(out, next.getName());
+                    out.append('\n');
+                }
+            }
+        }
+    }
+
+    /** Helper method to write a double quoted DOT id */
+    private static void quoteDot(Appendable out, CharSequence id) throws IOException {
+        out.append('"');
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /** Helper method to write a DOT id for a symbol */
+    private static void quoteDot(Appendable out, char symbol) throws IOException {
+        out.append('"');
+        if (symbol == '"' || symbol == '\\') {
+            out.append('\\');
+        }
+        out.append(symbol).append('"');
+    }
+
+    /** Helper method to write a CSV field, quoted only when it has to be */
+    private static void quoteCsv(Appendable out, CharSequence field) throws IOException {
+        boolean quote = field.length() == 0 || field.charAt(0) == '#' || field.charAt(0) == '%'; //Not comments or directives
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || Character.isWhitespace(c); //The reader splits on whitespace too
+        }
+        if (!quote) {
+            out.append(field);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /** Helper method to write a CSV field for a symbol */
+    private static void quoteCsv(Appendable out, char symbol) throws IOException {
+        if (symbol == ',' || symbol == '"' || Character.isWhitespace(symbol)) {
+            out.append('"').append(symbol);
+            if (symbol == '"') {
+                out.append('"');
+            }
+            out.append('"');
+        } else {
+            out.append(symbol);
+        }
+    }
+}
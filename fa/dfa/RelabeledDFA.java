@@ -0,0 +1,167 @@
+package fa.dfa;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import fa.State;
+
+/**
+ * This class is a view of a Deterministic Finite Automata (DFA) with its input symbols relabeled.
+ * Each key of the mapping is read as its value, symbols that are not keys are read as themselves.
+ * Permutations swap columns of delta and many-to-one mappings merge symbols, e.g. { A=a, B=b }
+ * makes a DFA over { a b } also accept upper case input.
+ *
+ * Symbols are remapped at lookup time through a table over the keys of the mapping and then looked
+ * up in the DFA's own states, so the view copies no part of delta.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class RelabeledDFA extends DFAView {
+
+    private final DFA dfa;
+    private final Map<Character, Character> mapping;
+
+    // Symbol each input symbol is read as, indexed up to the largest key, larger symbols read as themselves
+    private final char[] remap;
+
+    /**
+     * Construct new view
+     * @param dfa the relabeled DFA
+     * @param mapping copy of the symbol mapping
+     */
+    RelabeledDFA(DFA dfa, Map<Character, Character> mapping) {
+        this.dfa = dfa;
+        this.mapping = mapping;
+        int max = -1;
+        for (char c : mapping.keySet()) {
+            max = Math.max(max, c);
+        }
+        this.remap = new char[max + 1];
+        for (int c = 0; c <= max; c++) {
+            this.remap[c] = mapping.getOrDefault((char) c, (char) c);
+        }
+    }
+
+    /**
+     * Builds a copy of the DFA in which each symbol reads the column of its image.
+     * Runs in one pass over delta, O(|Q| * |Sigma|).
+     * @param dfa the DFA to relabel
+     * @param mapping maps input symbols to the symbols they are read as
+     * @return the relabeled copy
+     */
+    static DFA materialize(DFA dfa, Map<Character, Character> mapping) {
+        CompiledDFA table = dfa.compiled();
+        char[] symbols = relabeledSigma(table, mapping);
+        int[] sourceColumns = new int[symbols.length];
+        for (int col = 0; col < symbols.length; col++) {
+            sourceColumns[col] = table.column(mapping.getOrDefault(symbols[col], symbols[col]));
+        }
+
+        DFA copy = new DFA();
+        for (char c : symbols) {
+            copy.addSigma(c); //Copy over relabeled alphabet (sigma)
+        }
+        DFAState[] states = new DFAState[table.states.length];
+        for (int q = 0; q < states.length; q++) {
+            states[q] = copy.putState(table.states[q].getName()); //Copy over existing states (Q)
+        }
+        for (int q = 0; q < states.length; q++) { //Copy delta one permuted row at a time
+            for (int col = 0; col < symbols.length; col++) {
+                int next = table.next(q, sourceColumns[col]);
+                if (next != CompiledDFA.NONE) {
+                    copy.putTransition(states[q], states[next], symbols[col]);
+                }
+            }
+            if (table.finals[q]) {
+                copy.setFinal(states[q].getName());
+            }
+        }
+        if (table.start != CompiledDFA.NONE) {
+            copy.setStart(states[table.start].getName());
+        }
+        return copy;
+    }
+
+    /**
+     * Simulates the DFA on input s with every symbol remapped
+     * @param s - the input string
+     * @return true if the DFA accepts s after relabeling
+     */
+    public boolean accepts(String s) {
+        DFAState state = this.dfa.startState();
+        for (int i = 0, n = s.length(); i < n && state != null; i++) {
+            char c = s.charAt(i);
+            char read = c < this.remap.length ? this.remap[c] : c;
+            state = this.dfa.inSigma(read) ? state.getNextState(read) : null;
+        }
+        return state != null && this.dfa.isFinalState(state);
+    }
+
+    /**
+     * Getter for Sigma
+     * @return every symbol that is read as a symbol of the DFA
+     */
+    public Set<Character> getSigma() {
+        Set<Character> sigma = new LinkedHashSet<>();
+        for (char c : this.dfa.getSigma()) {
+            if (this.dfa.inSigma(this.mapping.getOrDefault(c, c))) {
+                sigma.add(c);
+            }
+        }
+        for (Map.Entry<Character, Character> entry : this.mapping.entrySet()) {
+            if (this.dfa.inSigma(entry.getValue())) {
+                sigma.add(entry.getKey());
+            }
+        }
+        return sigma;
+    }
+
+    /**
+     * Returns state with the given name, or null if none exists
+     * @param name of a state
+     * @return state object of the underlying DFA or null
+     */
+    public State getState(String name) {
+        return this.dfa.getState(name);
+    }
+
+    /**
+     * Determines if a state with a given name is final
+     * @param name the name of the state
+     * @return true if a state with that name exists and it is final
+     */
+    public boolean isFinal(String name) {
+        return this.dfa.isFinal(name);
+    }
+
+    /**
+     * Determines if a state with name is the start state
+     * @param name the name of the state
+     * @return true if a state with that name exists and it is the start state
+     */
+    public boolean isStart(String name) {
+        return this.dfa.isStart(name);
+    }
+
+    /** Helper method to return Sigma after relabeling, old symbols first and then new keys */
+    private static char[] relabeledSigma(CompiledDFA table, Map<Character, Character> mapping) {
+        Set<Character> sigma = new LinkedHashSet<>();
+        for (char c : table.symbols) {
+            if (table.column(mapping.getOrDefault(c, c)) != CompiledDFA.NONE) {
+                sigma.add(c);
+            }
+        }
+        for (Map.Entry<Character, Character> entry : mapping.entrySet()) {
+            if (table.column(entry.getValue()) != CompiledDFA.NONE) {
+                sigma.add(entry.getKey());
+            }
+        }
+        char[] symbols = new char[sigma.size()];
+        int i = 0;
+        for (char c : sigma) {
+            symbols[i++] = c;
+        }
+        return symbols;
+    }
+}
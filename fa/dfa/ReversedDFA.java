@@ -0,0 +1,90 @@
+package fa.dfa;
+
+import java.util.Set;
+
+import fa.State;
+
+/**
+ * This class is a view of the reverse of a Deterministic Finite Automata (DFA),
+ * accepting w exactly when the DFA accepts w read backwards.
+ *
+ * Reversing delta gives a nondeterministic automaton that starts in F and accepts
+ * in q0. It is determinized lazily while accepts runs, a subset state is only built
+ * the first time an input reaches it and is cached for later inputs. The cache belongs to the
+ * view and is used by one accepts call at a time.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class ReversedDFA extends DFAView {
+
+    private final DFA dfa;
+
+    // Lazy subset automaton for the last snapshot of dfa
+    private CompiledDFA table;
+    private SubsetAutomaton subsets;
+
+    /**
+     * Construct new view
+     * @param dfa the reversed DFA
+     */
+    ReversedDFA(DFA dfa) {
+        this.dfa = dfa;
+    }
+
+    /**
+     * Simulates the reversed DFA on input s.
+     * The whole run holds the view's lock: when the subset cache fills up, step flushes it and
+     * renumbers subsets, so an id held by another thread between steps could name a different
+     * subset afterwards. Threads sharing one view therefore take turns, e.g. all Batcher workers
+     * of a DFAServer serving it. Give each thread its own reverse() view to run them in parallel.
+     * @param s - the input string
+     * @return true if the DFA accepts s backwards and false otherwise
+     */
+    public synchronized boolean accepts(String s) {
+        CompiledDFA current = this.dfa.compiled();
+        if (current != this.table) {
+            this.table = current;
+            this.subsets = SubsetAutomaton.backward(current, false);
+        }
+        int state = this.subsets.initial();
+        for (int i = 0, n = s.length(); i < n && !this.subsets.isDead(state); i++) {
+            state = this.subsets.step(state, current.column(s.charAt(i)));
+        }
+        return this.subsets.isAccepting(state);
+    }
+
+    /**
+     * Getter for Sigma
+     * @return the alphabet of the DFA
+     */
+    public Set<Character> getSigma() {
+        return this.dfa.getSigma();
+    }
+
+    /**
+     * Returns state with the given name, or null if none exists
+     * @param name of a state
+     * @return state object of the DFA or null
+     */
+    public State getState(String name) {
+        return this.dfa.getState(name);
+    }
+
+    /**
+     * Determines if a state is final in the reversed automaton
+     * @param name the name of the state
+     * @return true if it is the start state of the DFA
+     */
+    public boolean isFinal(String name) {
+        return this.dfa.isStart(name);
+    }
+
+    /**
+     * Determines if a state is a start state of the reversed automaton
+     * @param name the name of the state
+     * @return true if it is a final state of the DFA
+     */
+    public boolean isStart(String name) {
+        return this.dfa.isFinal(name);
+    }
+}
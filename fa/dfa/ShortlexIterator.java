@@ -0,0 +1,211 @@
+package fa.dfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class lists the strings accepted by a Deterministic Finite Automata (DFA) in shortlex
+ * order: shorter strings first, strings of the same length ordered by symbol value.
+ *
+ * Strings of each length are found with a depth first walk that only enters states which can
+ * still reach a final state in exactly the remaining number of steps, so every step of the walk
+ * leads to an output and nothing is computed ahead of what is consumed. The iterator ends once
+ * no longer string can be accepted, which only happens for finite languages.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class ShortlexIterator implements Iterator<String> {
+
+    private final CompiledDFA dfa;
+    private final int[] order;
+    private final int maxLength;
+
+    // finishing.get(r) holds the states that reach F in exactly r steps
+    private final List<BitSet> finishing = new ArrayList<>();
+
+    private int length = -1;
+    private char[] chars;
+    private int[] path;
+    private int[] nextIndex;
+    private int depth;
+    private String next;
+
+    /**
+     * Construct the iterator
+     * @param dfa snapshot to enumerate
+     */
+    ShortlexIterator(CompiledDFA dfa) {
+        this.dfa = dfa;
+        this.order = sortedColumns(dfa);
+        this.maxLength = finiteBound(dfa);
+        BitSet finals = new BitSet(dfa.states.length);
+        for (int q = 0; q < dfa.states.length; q++) {
+            if (dfa.finals[q]) {
+                finals.set(q);
+            }
+        }
+        this.finishing.add(finals);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next == null) {
+            this.next = advance();
+        }
+        return this.next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String result = this.next;
+        this.next = null;
+        return result;
+    }
+
+    /** Helper method to find the next accepted string or null */
+    private String advance() {
+        if (this.dfa.start == CompiledDFA.NONE) {
+            return null;
+        }
+        while (true) {
+            if (this.length >= 0) {
+                String found = walk();
+                if (found != null) {
+                    return found;
+                }
+            }
+            if (this.length >= this.maxLength) {
+                return null;
+            }
+            startLength(this.length + 1);
+        }
+    }
+
+    /** Helper method to begin the walk over strings of a new length */
+    private void startLength(int length) {
+        this.length = length;
+        while (this.finishing.size() <= length) {
+            this.finishing.add(step(this.finishing.get(this.finishing.size() - 1)));
+        }
+        this.chars = new char[length];
+        this.path = new int[length + 1];
+        this.nextIndex = new int[length + 1];
+        this.path[0] = this.dfa.start;
+        this.depth = this.finishing.get(length).get(this.dfa.start) ? 0 : -1;
+    }
+
+    /** Helper method to continue the depth first walk, returns the next string of this length or null */
+    private String walk() {
+        while (this.depth >= 0) {
+            if (this.depth == this.length) {
+                this.depth--; //Backtrack after reporting
+                return new String(this.chars);
+            }
+            BitSet target = this.finishing.get(this.length - this.depth - 1);
+            int state = this.path[this.depth];
+            int i = this.nextIndex[this.depth];
+            while (i < this.order.length) {
+                int next = this.dfa.next(state, this.order[i]);
+                if (next != CompiledDFA.NONE && target.get(next)) {
+                    break;
+                }
+                i++;
+            }
+            if (i == this.order.length) {
+                this.nextIndex[this.depth] = 0;
+                this.depth--;
+                continue;
+            }
+            this.nextIndex[this.depth] = i + 1;
+            this.chars[this.depth] = this.dfa.symbols[this.order[i]];
+            this.depth++;
+            this.path[this.depth] = this.dfa.next(state, this.order[i]);
+            this.nextIndex[this.depth] = 0;
+        }
+        return null;
+    }
+
+    /** Helper method to return the states with a transition into the given set */
+    private BitSet step(BitSet into) {
+        BitSet result = new BitSet(this.dfa.states.length);
+        for (int q = 0; q < this.dfa.states.length; q++) {
+            for (int col = 0; col < this.dfa.symbols.length; col++) {
+                int next = this.dfa.next(q, col);
+                if (next != CompiledDFA.NONE && into.get(next)) {
+                    result.set(q);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Helper method to return the columns ordered by symbol value */
+    private static int[] sortedColumns(CompiledDFA dfa) {
+        int[] order = new int[dfa.symbols.length];
+        long[] keyed = new long[order.length];
+        for (int col = 0; col < order.length; col++) {
+            keyed[col] = ((long) dfa.symbols[col] << 32) | col;
+        }
+        Arrays.sort(keyed);
+        for (int i = 0; i < order.length; i++) {
+            order[i] = (int) keyed[i];
+        }
+        return order;
+    }
+
+    /**
+     * Helper method to bound the length of accepted strings. If no cycle runs through
+     * states that are reachable from q0 and can reach F the language is finite and no
+     * accepted string is longer than the number of such states, otherwise there is no bound.
+     */
+    private static int finiteBound(CompiledDFA dfa) {
+        if (dfa.start == CompiledDFA.NONE) {
+            return -1;
+        }
+        boolean[] live = dfa.live();
+        int states = dfa.states.length;
+        int sigmaSize = dfa.symbols.length;
+
+        //Iterative depth first search over useful states, colour 1 = on the stack, 2 = done
+        byte[] colour = new byte[states];
+        int[] stack = new int[states];
+        int[] nextCol = new int[states];
+        int useful = 0;
+        if (!live[dfa.start]) {
+            return -1;
+        }
+        int top = 0;
+        stack[top++] = dfa.start;
+        colour[dfa.start] = 1;
+        useful++;
+        while (top > 0) {
+            int q = stack[top - 1];
+            if (nextCol[q] == sigmaSize) {
+                colour[q] = 2;
+                top--;
+                continue;
+            }
+            int next = dfa.next(q, nextCol[q]++);
+            if (next == CompiledDFA.NONE || !live[next]) {
+                continue;
+            }
+            if (colour[next] == 1) {
+                return Integer.MAX_VALUE; //Cycle, infinite language
+            }
+            if (colour[next] == 0) {
+                colour[next] = 1;
+                useful++;
+                stack[top++] = next;
+            }
+        }
+        return useful - 1;
+    }
+}
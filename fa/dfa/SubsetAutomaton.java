@@ -0,0 +1,242 @@
+package fa.dfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class determinizes a nondeterministic automaton over the states of a
+ * CompiledDFA lazily. Subset states are only created when the input reaches
+ * them and their transitions are filled in on first use, so scanning text never
+ * builds more of the powerset than the text actually needs.
+ *
+ * With injection enabled the initial set is added back after every step, which
+ * turns an automaton for L into one for Sigma* L (a match may start anywhere).
+ * When the number of cached subsets reaches its limit the cache is flushed and
+ * rebuilt from the current subset, so memory stays bounded on any input.
+ *
+ * Instances are not thread safe, callers lock around a whole scan.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class SubsetAutomaton {
+
+    private static final int UNKNOWN = -1;
+    private static final int DEFAULT_LIMIT = 10_000;
+
+    private final int sigmaSize;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] initial;
+    private final boolean[] accepting;
+    private final boolean inject;
+    private final int limit;
+
+    private final HashMap<SetKey, Integer> ids = new HashMap<>();
+    private final ArrayList<int[]> sets = new ArrayList<>();
+    private boolean[] acceptingSets = new boolean[16];
+    private int[] next = new int[0];
+    private int initialId;
+    private int deadId;
+
+    private final boolean[] mark;
+    private final int[] scratch;
+
+    private SubsetAutomaton(int sigmaSize, int[] offsets, int[] targets, int[] initial, boolean[] accepting,
+            boolean inject) {
+        this.sigmaSize = sigmaSize;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.initial = initial;
+        this.accepting = accepting;
+        this.inject = inject;
+        this.limit = DEFAULT_LIMIT;
+        this.mark = new boolean[accepting.length];
+        this.scratch = new int[accepting.length];
+        this.next = new int[16 * Math.max(1, sigmaSize)];
+        reset();
+    }
+
+    /**
+     * Automaton reading forward from q0, accepting subsets that contain a final state
+     * @param dfa snapshot to determinize
+     * @param inject true to restart q0 at every position (Sigma* L)
+     * @return the lazy automaton
+     */
+    static SubsetAutomaton forward(CompiledDFA dfa, boolean inject) {
+        int cells = dfa.delta.length;
+        int[] offsets = new int[cells + 1];
+        int[] targets = new int[cells];
+        int size = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (dfa.delta[cell] != CompiledDFA.NONE) {
+                targets[size++] = dfa.delta[cell];
+            }
+            offsets[cell + 1] = size;
+        }
+        int[] initial = dfa.start == CompiledDFA.NONE ? new int[0] : new int[] { dfa.start };
+        return new SubsetAutomaton(dfa.symbols.length, offsets, Arrays.copyOf(targets, size), initial,
+                dfa.finals.clone(), inject);
+    }
+
+    /**
+     * Automaton reading backward from F, accepting subsets that contain q0
+     * @param dfa snapshot to determinize
+     * @param inject true to restart F at every position (Sigma* reverse(L))
+     * @return the lazy automaton
+     */
+    static SubsetAutomaton backward(CompiledDFA dfa, boolean inject) {
+        int[][] reverse = dfa.reverseTable();
+        int count = 0;
+        for (boolean f : dfa.finals) {
+            if (f) {
+                count++;
+            }
+        }
+        int[] initial = new int[count];
+        count = 0;
+        for (int q = 0; q < dfa.finals.length; q++) {
+            if (dfa.finals[q]) {
+                initial[count++] = q;
+            }
+        }
+        boolean[] accepting = new boolean[dfa.states.length];
+        if (dfa.start != CompiledDFA.NONE) {
+            accepting[dfa.start] = true;
+        }
+        return new SubsetAutomaton(dfa.symbols.length, reverse[0], reverse[1], initial, accepting, inject);
+    }
+
+    /**
+     * Id of the state before any input is read
+     * @return the initial subset state
+     */
+    int initial() {
+        return this.initialId;
+    }
+
+    /**
+     * Determines if a subset state contains an accepting member
+     * @param id subset state
+     * @return true if accepting
+     */
+    boolean isAccepting(int id) {
+        return this.acceptingSets[id];
+    }
+
+    /**
+     * Determines if a subset state can never accept again
+     * @param id subset state
+     * @return true if the subset is empty
+     */
+    boolean isDead(int id) {
+        return this.sets.get(id).length == 0;
+    }
+
+    /**
+     * Transition from a subset state
+     * @param id current subset state
+     * @param col column of the input symbol, CompiledDFA.NONE if the symbol is not in Sigma
+     * @return the next subset state, ids handed out earlier may be invalid after this call
+     */
+    int step(int id, int col) {
+        if (col == CompiledDFA.NONE) {
+            return this.inject ? this.initialId : this.deadId;
+        }
+        int cached = this.next[id * this.sigmaSize + col];
+        if (cached != UNKNOWN) {
+            return cached;
+        }
+
+        int[] members = this.sets.get(id);
+        int size = 0;
+        for (int q : members) {
+            int cell = q * this.sigmaSize + col;
+            for (int k = this.offsets[cell]; k < this.offsets[cell + 1]; k++) {
+                int p = this.targets[k];
+                if (!this.mark[p]) {
+                    this.mark[p] = true;
+                    this.scratch[size++] = p;
+                }
+            }
+        }
+        if (this.inject) {
+            for (int p : this.initial) {
+                if (!this.mark[p]) {
+                    this.mark[p] = true;
+                    this.scratch[size++] = p;
+                }
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            this.mark[this.scratch[k]] = false;
+        }
+        int[] result = Arrays.copyOf(this.scratch, size);
+        Arrays.sort(result);
+
+        if (this.sets.size() >= this.limit) { //Flush the cache and keep going from the current subset
+            reset();
+            id = intern(members);
+        }
+        int target = intern(result);
+        this.next[id * this.sigmaSize + col] = target;
+        return target;
+    }
+
+    /** Helper method to drop every cached subset */
+    private void reset() {
+        this.ids.clear();
+        this.sets.clear();
+        this.initialId = intern(this.initial.clone());
+        this.deadId = intern(new int[0]);
+    }
+
+    /** Helper method to return the id of a sorted subset, creating it if needed */
+    private int intern(int[] members) {
+        SetKey key = new SetKey(members);
+        Integer id = this.ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        int created = this.sets.size();
+        this.sets.add(members);
+        this.ids.put(key, created);
+
+        if (created >= this.acceptingSets.length) {
+            this.acceptingSets = Arrays.copyOf(this.acceptingSets, created * 2);
+        }
+        boolean accepts = false;
+        for (int q : members) {
+            accepts |= this.accepting[q];
+        }
+        this.acceptingSets[created] = accepts;
+
+        int needed = (created + 1) * this.sigmaSize;
+        if (needed > this.next.length) {
+            this.next = Arrays.copyOf(this.next, Math.max(needed, this.next.length * 2));
+        }
+        Arrays.fill(this.next, created * this.sigmaSize, needed, UNKNOWN);
+        return created;
+    }
+
+    /** Hash key for a sorted subset of states */
+    private static final class SetKey {
+        private final int[] members;
+        private final int hash;
+
+        SetKey(int[] members) {
+            this.members = members;
+            this.hash = Arrays.hashCode(members);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SetKey && Arrays.equals(this.members, ((SetKey) o).members);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
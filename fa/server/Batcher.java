@@ -0,0 +1,148 @@
+package fa.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import fa.FAInterface;
+
+/**
+ * This class coalesces accept queries from many connections into micro-batches.
+ * A fixed set of workers, one per processor, each take up to batchSize queued queries
+ * at a time, waiting at most batchDelay for a batch to fill, and answer them in one go.
+ * Connection threads only enqueue and wait, so the automaton is only ever walked by a
+ * few hot threads however many clients are connected.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class Batcher implements AutoCloseable {
+
+    private final BlockingQueue<Query> queue = new LinkedBlockingQueue<>();
+    private final int batchSize;
+    private final long batchDelayNanos;
+    private final Thread[] workers;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private volatile boolean running = true;
+
+    /**
+     * Construct and start the workers
+     * @param batchSize largest number of queries answered together
+     * @param batchDelayMicros longest wait for a batch to fill, 0 to answer whatever is queued
+     */
+    Batcher(int batchSize, long batchDelayMicros) {
+        if (batchSize < 1 || batchDelayMicros < 0) {
+            throw new IllegalArgumentException("batchSize must be positive and batchDelay not negative");
+        }
+        this.batchSize = batchSize;
+        this.batchDelayNanos = TimeUnit.MICROSECONDS.toNanos(batchDelayMicros);
+        this.workers = new Thread[Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i] = new Thread(this::work, "dfa-batcher-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+
+    /**
+     * Queues a query
+     * @param automaton the automaton to run, never modified while queued
+     * @param input the input string
+     * @return future completed with the result
+     */
+    CompletableFuture<Boolean> submit(FAInterface automaton, String input) {
+        Query query = new Query(automaton, input);
+        if (!this.running) {
+            query.result.completeExceptionally(new IllegalStateException("server is closed"));
+        } else {
+            this.queue.add(query);
+            if (!this.running && this.queue.remove(query)) { //close drained the queue before the add
+                query.result.completeExceptionally(new IllegalStateException("server is closed"));
+            }
+        }
+        return query.result;
+    }
+
+    /**
+     * Average number of queries answered per batch
+     * @return queries / batches, or 0 before the first batch
+     */
+    double averageBatchSize() {
+        long count = this.batches.sum();
+        return count == 0 ? 0 : (double) this.queries.sum() / count;
+    }
+
+    /**
+     * Getter for the number of answered queries
+     * @return query count
+     */
+    long queryCount() {
+        return this.queries.sum();
+    }
+
+    /**
+     * Stops the workers and fails all queued queries. A query submitted concurrently is either
+     * drained here or removed again by submit, which sees running cleared, so none is left waiting.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        for (Thread worker : this.workers) {
+            worker.interrupt();
+        }
+        Query query;
+        while ((query = this.queue.poll()) != null) {
+            query.result.completeExceptionally(new IllegalStateException("server is closed"));
+        }
+    }
+
+    /** Helper method run by each worker */
+    private void work() {
+        List<Query> batch = new ArrayList<>(this.batchSize);
+        try {
+            while (this.running) {
+                batch.add(this.queue.take());
+                this.queue.drainTo(batch, this.batchSize - batch.size());
+                long deadline = System.nanoTime() + this.batchDelayNanos;
+                while (batch.size() < this.batchSize && this.batchDelayNanos > 0) { //Wait a little for the batch to fill
+                    Query next = this.queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    this.queue.drainTo(batch, this.batchSize - batch.size());
+                }
+                for (Query query : batch) {
+                    try {
+                        query.result.complete(query.automaton.accepts(query.input));
+                    } catch (RuntimeException e) {
+                        query.result.completeExceptionally(e);
+                    }
+                }
+                this.batches.increment();
+                this.queries.add(batch.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            for (Query query : batch) {
+                query.result.completeExceptionally(new IllegalStateException("server is closed"));
+            }
+        }
+    }
+
+    /** One queued query */
+    private static final class Query {
+        final FAInterface automaton;
+        final String input;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Query(FAInterface automaton, String input) {
+            this.automaton = automaton;
+            this.input = input;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package fa.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import fa.FAInterface;
+import fa.dfa.DFA;
+import fa.dfa.DFAFormatException;
+import fa.dfa.DFAReader;
+
+/**
+ * This class serves accept/reject queries for named automata over a TCP or Unix domain socket.
+ *
+ * The protocol is line based and UTF-8, every request line gets exactly one reply line:
+ * ACCEPT name input  replies 1 if the automaton accepts input (the rest of the line) and 0 if not
+ * RELOAD name        reads the file the automaton was loaded from at startup again, replies OK
+ * LIST               replies the names of all automata
+ * STATS              replies query and batch counters
+ * PING               replies PONG
+ * Failures reply ERR and a message. Requests may be pipelined, replies come back in order.
+ * Request lines longer than MAX_LINE chars are skipped up to their end and reply ERR.
+ * Clients can only name automata the server was started with, they never pass paths, and
+ * error replies carry no file contents. Details of failed reloads go to the server's log.
+ *
+ * Each connection runs on its own virtual thread (platform thread before Java 21) and queries
+ * from all connections are answered in micro-batches by a Batcher. Automata are never modified
+ * once registered. Reloading swaps in a new automaton atomically: queries already
+ * queued finish on the old one and connections stay open.
+ *
+ * Files ending in .csv or .edges are read as edge lists, anything else in the table format.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+public class DFAServer implements AutoCloseable {
+
+    private static final int MAX_PIPELINE = 1024;
+    private static final int MAX_LINE = 1 << 16;
+    private static final String TOO_LONG = "\n"; //Never part of a line read by readLine
+
+    // File type bits of unix:mode
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFSOCK = 0140000;
+
+    private final Map<String, Loaded> automata = new ConcurrentHashMap<>();
+    private final Batcher batcher;
+    private final ExecutorService connections = Threads.perTask();
+    private ServerSocketChannel channel;
+    private Path unixPath;
+
+    /**
+     * Construct new server, nothing is bound until start
+     * @param batchSize largest number of queries answered together
+     * @param batchDelayMicros longest wait for a batch to fill
+     */
+    public DFAServer(int batchSize, long batchDelayMicros) {
+        this.batcher = new Batcher(batchSize, batchDelayMicros);
+    }
+
+    /**
+     * Loads an automaton from a file, replacing any automaton with the same name
+     * @param name name clients query it by
+     * @param file table or edge-list file
+     * @throws IOException if the file can't be read or is malformed
+     */
+    public void load(String name, Path file) throws IOException {
+        checkName(name);
+        this.automata.put(name, new Loaded(read(file), file));
+    }
+
+    /**
+     * Registers an automaton, replacing any automaton with the same name.
+     * The DFA must not be modified afterwards.
+     * @param name name clients query it by
+     * @param dfa the automaton
+     */
+    public void put(String name, FAInterface dfa) {
+        checkName(name);
+        this.automata.put(name, new Loaded(dfa, null));
+    }
+
+    /**
+     * Reads the file of a loaded automaton again and swaps the result in
+     * @param name name of the automaton
+     * @return false if there is no automaton with that name loaded from a file
+     * @throws IOException if the file can't be read or is malformed, the old automaton stays
+     */
+    public boolean reload(String name) throws IOException {
+        Loaded loaded = this.automata.get(name);
+        if (loaded == null || loaded.source == null) {
+            return false;
+        }
+        this.automata.put(name, new Loaded(read(loaded.source), loaded.source));
+        return true;
+    }
+
+    /**
+     * Binds the server and starts accepting connections
+     * @param address an InetSocketAddress or a UnixDomainSocketAddress
+     * @throws IOException if the address can't be bound
+     */
+    public void start(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            removeStaleSocket(((UnixDomainSocketAddress) address).getPath());
+            this.channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            this.channel = ServerSocketChannel.open();
+        }
+        this.channel.bind(address);
+        if (address instanceof UnixDomainSocketAddress) {
+            this.unixPath = ((UnixDomainSocketAddress) address).getPath(); //Ours from now on, removed by close
+        }
+        Thread acceptor = new Thread(this::acceptLoop, "dfa-server-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Getter for the bound address
+     * @return the address, with the actual port if port 0 was requested
+     * @throws IOException if the server is closed
+     */
+    public SocketAddress getAddress() throws IOException {
+        return this.channel.getLocalAddress();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.channel != null) {
+            this.channel.close();
+        }
+        this.batcher.close(); //Fails queued queries first so no connection waits on them
+        this.connections.shutdownNow();
+        if (this.unixPath != null) {
+            Files.deleteIfExists(this.unixPath);
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped
+     * @param args (--port N [--host H] | --unix PATH) [--batch N] [--delay MICROS] [name=file ...],
+     *             TCP binds to the loopback address unless a host is given
+     * @throws IOException if the server can't start or an automaton can't be loaded
+     */
+    public static void main(String[] args) throws IOException {
+        SocketAddress address = null;
+        Integer port = null;
+        InetAddress host = InetAddress.getLoopbackAddress();
+        int batchSize = 64;
+        long batchDelay = 0;
+        List<String[]> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--host":
+                    host = InetAddress.getByName(args[++i]);
+                    break;
+                case "--unix":
+                    address = UnixDomainSocketAddress.of(args[++i]);
+                    break;
+                case "--batch":
+                    batchSize = Integer.parseInt(args[++i]);
+                    break;
+                case "--delay":
+                    batchDelay = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    int split = args[i].indexOf('=');
+                    if (split <= 0) {
+                        usage();
+                    }
+                    files.add(new String[] { args[i].substring(0, split), args[i].substring(split + 1) });
+            }
+        }
+        if ((address == null) == (port == null)) {
+            usage();
+        }
+        if (port != null) {
+            address = new InetSocketAddress(host, port);
+        }
+
+        DFAServer server = new DFAServer(batchSize, batchDelay);
+        for (String[] file : files) {
+            server.load(file[0], Paths.get(file[1]));
+        }
+        server.start(address);
+        System.out.println("serving " + files.size() + " automata on " + server.getAddress()
+                + (Threads.virtual() ? " with virtual threads" : " with platform threads"));
+        try {
+            Thread.currentThread().join(); //Serving threads are daemons, keep the process alive
+        } catch (InterruptedException e) {
+            server.close();
+        }
+    }
+
+    /** Helper method to print the command line and exit */
+    private static void usage() {
+        System.err.println("usage: DFAServer (--port N [--host H] | --unix PATH) [--batch N] [--delay MICROS] [name=file ...]");
+        System.exit(2);
+    }
+
+    /** Helper method to remove a socket left over from an earlier run, refusing to touch any other file */
+    private static void removeStaleSocket(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        int mode;
+        try {
+            mode = (Integer) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+        } catch (UnsupportedOperationException e) {
+            throw new IOException(path + " already exists");
+        }
+        if ((mode & S_IFMT) != S_IFSOCK) {
+            throw new IOException(path + " already exists and is not a socket");
+        }
+        Files.delete(path);
+    }
+
+    /** Helper method to read an automaton file by its extension */
+    private static DFA read(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        return name.endsWith(".csv") || name.endsWith(".edges") ? DFAReader.readEdgeList(file) : DFAReader.read(file);
+    }
+
+    /** Helper method to reject names the protocol can't carry */
+    private static void checkName(String name) {
+        if (name.isEmpty() || name.chars().anyMatch(Character::isWhitespace)) {
+            throw new IllegalArgumentException("automaton names can't be empty or contain whitespace");
+        }
+    }
+
+    /** Helper method run by the accepting thread */
+    private void acceptLoop() {
+        try {
+            while (true) {
+                SocketChannel client = this.channel.accept();
+                this.connections.execute(() -> serve(client));
+            }
+        } catch (ClosedChannelException e) {
+            //Server closed
+        } catch (IOException e) {
+            System.err.println("accept failed: " + e);
+        }
+    }
+
+    /** Helper method to answer the requests of one connection */
+    private void serve(SocketChannel client) {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+                BufferedWriter out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8))) {
+            List<Object> pending = new ArrayList<>();
+            String line;
+            while ((line = readLine(in)) != null) {
+                pending.add(handle(line));
+                while (pending.size() < MAX_PIPELINE && in.ready() && (line = readLine(in)) != null) { //Requests already sent
+                    pending.add(handle(line));
+                }
+                for (Object reply : pending) {
+                    out.write(reply(reply));
+                    out.write('\n');
+                }
+                out.flush();
+                pending.clear();
+                if (line == null) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            //Client went away
+        }
+    }
+
+    /**
+     * Helper method to read a line ended by \n, \r or \r\n like BufferedReader.readLine, but holding at
+     * most MAX_LINE chars. The rest of a longer line is skipped and TOO_LONG returned instead.
+     */
+    private static String readLine(BufferedReader in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        boolean tooLong = false;
+        int c;
+        while ((c = in.read()) >= 0 && c != '\n') {
+            if (c == '\r') {
+                in.mark(1);
+                if (in.read() != '\n') {
+                    in.reset();
+                }
+                break;
+            }
+            if (line.length() < MAX_LINE) {
+                line.append((char) c);
+            } else {
+                tooLong = true;
+            }
+        }
+        if (c < 0 && line.length() == 0 && !tooLong) {
+            return null;
+        }
+        return tooLong ? TOO_LONG : line.toString();
+    }
+
+    /** Helper method to start one request, returns the reply or a future of it */
+    private Object handle(String line) {
+        if (line.equals(TOO_LONG)) {
+            return "ERR request line too long";
+        }
+        int space = line.indexOf(' ');
+        String command = space < 0 ? line : line.substring(0, space);
+        String rest = space < 0 ? "" : line.substring(space + 1);
+        try {
+            switch (command) {
+                case "ACCEPT": {
+                    int split = rest.indexOf(' ');
+                    String name = split < 0 ? rest : rest.substring(0, split);
+                    Loaded loaded = this.automata.get(name);
+                    if (loaded == null) {
+                        return "ERR unknown automaton " + name;
+                    }
+                    return this.batcher.submit(loaded.automaton, split < 0 ? "" : rest.substring(split + 1));
+                }
+                case "RELOAD":
+                    try {
+                        return reload(rest) ? "OK" : "ERR unknown automaton or not loaded from a file " + rest;
+                    } catch (DFAFormatException e) {
+                        System.err.println("reload of " + rest + " failed: " + e.getMessage());
+                        return "ERR malformed file for " + rest + " at line " + e.getLine() + ", column " + e.getColumn();
+                    } catch (IOException e) {
+                        System.err.println("reload of " + rest + " failed: " + e);
+                        return "ERR can't read file for " + rest;
+                    }
+                case "LIST":
+                    return String.join(" ", new TreeSet<>(this.automata.keySet()));
+                case "STATS":
+                    return String.format("queries=%d avgBatch=%.2f automata=%d", this.batcher.queryCount(),
+                            this.batcher.averageBatchSize(), this.automata.size());
+                case "PING":
+                    return "PONG";
+                default:
+                    return "ERR unknown command " + command;
+            }
+        } catch (RuntimeException e) {
+            System.err.println("request failed: " + e);
+            return "ERR " + command + " failed";
+        }
+    }
+
+    /** Helper method to turn a pending request into its reply line, waiting interruptibly so close can stop it */
+    private static String reply(Object pending) throws IOException {
+        if (!(pending instanceof CompletableFuture)) {
+            return (String) pending;
+        }
+        try {
+            return ((CompletableFuture<?>) pending).get() == Boolean.TRUE ? "1" : "0";
+        } catch (ExecutionException e) {
+            System.err.println("query failed: " + e.getCause());
+            return "ERR ACCEPT failed";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("server is closed");
+        }
+    }
+
+    /** A registered automaton and the file it came from, if any */
+    private static final class Loaded {
+        final FAInterface automaton;
+        final Path source;
+
+        Loaded(FAInterface automaton, Path source) {
+            this.automaton = automaton;
+            this.source = source;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package fa.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * This class measures the throughput and latency of a DFAServer.
+ * Every connection sends ACCEPT queries with random inputs over the given alphabet,
+ * a window of pipelined requests at a time, and records the latency of each reply.
+ * Prints queries per second and latency percentiles when all connections are done.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+public class LoadGenerator {
+
+    private final SocketAddress address;
+    private final String name;
+    private final char[] alphabet;
+    private final int length;
+    private final int pipeline;
+
+    /**
+     * Construct new load generator
+     * @param address server address
+     * @param name automaton to query
+     * @param alphabet symbols of the random inputs
+     * @param length length of every input
+     * @param pipeline requests sent before waiting for replies
+     */
+    public LoadGenerator(SocketAddress address, String name, String alphabet, int length, int pipeline) {
+        this.address = address;
+        this.name = name;
+        this.alphabet = alphabet.toCharArray();
+        this.length = length;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Runs the load
+     * @param connections number of concurrent connections
+     * @param requests requests per connection
+     * @param seed seed of the inputs
+     * @return latency of every request in nanoseconds, sorted, and the elapsed time as the last element
+     * @throws Exception if a connection fails
+     */
+    public long[] run(int connections, int requests, long seed) throws Exception {
+        ExecutorService executor = Threads.perTask();
+        try {
+            long start = System.nanoTime();
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int c = 0; c < connections; c++) {
+                long connectionSeed = seed + c;
+                results.add(executor.submit(() -> connection(requests, new Random(connectionSeed))));
+            }
+            long[] latencies = new long[connections * requests + 1];
+            int size = 0;
+            for (Future<long[]> result : results) {
+                long[] connection = result.get();
+                System.arraycopy(connection, 0, latencies, size, connection.length);
+                size += connection.length;
+            }
+            Arrays.sort(latencies, 0, size);
+            latencies[size] = System.nanoTime() - start;
+            return latencies;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Entry point
+     * @param args (--port N [--host H] | --unix PATH) --name NAME [--alphabet 01] [--length 32]
+     *             [--connections 64] [--requests 10000] [--pipeline 1] [--seed 361]
+     * @throws Exception if the load can't be run
+     */
+    public static void main(String[] args) throws Exception {
+        String host = "localhost";
+        Integer port = null;
+        String unix = null;
+        String name = null;
+        String alphabet = "01";
+        int length = 32;
+        int connections = 64;
+        int requests = 10_000;
+        int pipeline = 1;
+        long seed = 361;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--host": host = args[i + 1]; break;
+                case "--port": port = Integer.parseInt(args[i + 1]); break;
+                case "--unix": unix = args[i + 1]; break;
+                case "--name": name = args[i + 1]; break;
+                case "--alphabet": alphabet = args[i + 1]; break;
+                case "--length": length = Integer.parseInt(args[i + 1]); break;
+                case "--connections": connections = Integer.parseInt(args[i + 1]); break;
+                case "--requests": requests = Integer.parseInt(args[i + 1]); break;
+                case "--pipeline": pipeline = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default:
+                    System.err.println("unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (name == null || (port == null) == (unix == null)) {
+            System.err.println("usage: LoadGenerator (--port N [--host H] | --unix PATH) --name NAME [--alphabet 01]"
+                    + " [--length 32] [--connections 64] [--requests 10000] [--pipeline 1] [--seed 361]");
+            System.exit(2);
+        }
+        SocketAddress address = unix != null ? UnixDomainSocketAddress.of(unix) : new InetSocketAddress(host, port);
+
+        long[] latencies = new LoadGenerator(address, name, alphabet, length, pipeline).run(connections, requests, seed);
+        int count = latencies.length - 1;
+        double seconds = latencies[count] / 1e9;
+        System.out.printf("%d queries over %d connections in %.2f s: %.0f queries/s%n", count, connections, seconds,
+                count / seconds);
+        System.out.printf("latency p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+                percentile(latencies, count, 50) / 1e3, percentile(latencies, count, 99) / 1e3,
+                percentile(latencies, count, 99.9) / 1e3, latencies[count - 1] / 1e3);
+    }
+
+    /**
+     * Latency at a percentile
+     * @param sorted sorted latencies
+     * @param count number of latencies in sorted
+     * @param percent percentile between 0 and 100
+     * @return the latency
+     */
+    public static long percentile(long[] sorted, int count, double percent) {
+        int index = (int) Math.ceil(percent / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    /** Helper method to run the requests of one connection */
+    private long[] connection(int requests, Random random) throws IOException {
+        SocketChannel channel = this.address instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX) : SocketChannel.open();
+        channel.connect(this.address);
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+                BufferedWriter out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8))) {
+            long[] latencies = new long[requests];
+            long[] sent = new long[this.pipeline];
+            char[] input = new char[this.length];
+            for (int done = 0; done < requests; ) {
+                int window = Math.min(this.pipeline, requests - done);
+                for (int i = 0; i < window; i++) {
+                    for (int j = 0; j < input.length; j++) {
+                        input[j] = this.alphabet[random.nextInt(this.alphabet.length)];
+                    }
+                    out.write("ACCEPT ");
+                    out.write(this.name);
+                    out.write(' ');
+                    out.write(input);
+                    out.write('\n');
+                    sent[i] = System.nanoTime();
+                }
+                out.flush();
+                for (int i = 0; i < window; i++) {
+                    String reply = in.readLine();
+                    if (reply == null || reply.startsWith("ERR")) {
+                        throw new IOException("server replied " + reply);
+                    }
+                    latencies[done++] = System.nanoTime() - sent[i];
+                }
+            }
+            return latencies;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package fa.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class creates the executors for connection handling.
+ * Java 21 and later run every task on its own virtual thread, so blocked
+ * connections cost a few hundred bytes instead of a platform thread. The
+ * project targets Java 17, so the virtual thread factory is looked up at
+ * run time and older runtimes fall back to a cached thread pool.
+ *
+ * @author Cameron Quitugua, Hailey Whitaker
+ */
+final class Threads {
+
+    private Threads() {
+    }
+
+    /**
+     * Executor that starts a new thread per task, virtual when the runtime has them
+     * @return the executor
+     */
+    static ExecutorService perTask() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Determines if perTask() hands out virtual threads
+     * @return true on Java 21 and later
+     */
+    static boolean virtual() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
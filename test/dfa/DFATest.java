@@ -2,11 +2,30 @@ package test.dfa;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 
+import fa.FAInterface;
+import fa.dfa.AcceptCache;
 import fa.dfa.DFA;
+import fa.dfa.DFADictionary;
+import fa.dfa.DFAFormatException;
+import fa.dfa.DFAMatch;
+import fa.dfa.DFAReader;
+import fa.dfa.DFASampler;
 
 public class DFATest {
 	
@@ -406,4 +425,507 @@ public void test3_6() {
 	System.out.println("dfa3Swap accept pass");
 }
 	
+//------------------- search tests ----------------------//
+	private DFA dfaAB() {
+		DFA dfa = new DFA();
+		dfa.addSigma('a');
+		dfa.addSigma('b');
+		
+		assertTrue(dfa.addState("s"));
+		assertTrue(dfa.addState("x"));
+		assertTrue(dfa.addState("y"));
+		assertTrue(dfa.setStart("s"));
+		assertTrue(dfa.setFinal("y"));
+		
+		assertTrue(dfa.addTransition("s", "x", 'a'));
+		assertTrue(dfa.addTransition("x", "y", 'b'));
+		
+		return dfa;
+	}
+	
+	@Test
+	public void test4_1() {
+		DFA dfa = dfaAB();
+		
+		assertEquals(new DFAMatch(2, 4), dfa.find("zzabzab"));
+		assertEquals(new DFAMatch(5, 7), dfa.find("zzabzab", 3));
+		assertNull(dfa.find("zzbazz"));
+		assertEquals(List.of(new DFAMatch(2, 4), new DFAMatch(5, 7)), dfa.findAll("zzabzab"));
+		assertEquals(2, dfa.count("zzabzab"));
+		assertEquals(0, dfa.count(""));
+		
+		System.out.println("dfaAB search pass");
+	}
+	
+	@Test
+	public void test4_2() {
+		DFA dfa = dfa1();
+		
+		//leftmost-longest: the first match runs to the last 1 before a foreign symbol
+		assertEquals(new DFAMatch(0, 4), dfa.find("0101"));
+		assertEquals(List.of(new DFAMatch(1, 3), new DFAMatch(4, 5)), dfa.findAll("e01e1"));
+		assertEquals(0, dfa.count("000"));
+		
+		//searches see later mutations, an empty match is also reported at the end
+		assertTrue(dfa.setFinal("a"));
+		assertEquals(List.of(new DFAMatch(0, 3), new DFAMatch(3, 3)), dfa.findAll("000"));
+		
+		System.out.println("dfa1 search pass");
+	}
+	
+	@Test(timeout = 10_000)
+	public void test4_3() {
+		//L = a | a a* c, every a is a match but the DFA stays live to the end of a run of a
+		DFA dfa = new DFA();
+		dfa.addSigma('a');
+		dfa.addSigma('c');
+		assertTrue(dfa.addState("s"));
+		assertTrue(dfa.addState("x"));
+		assertTrue(dfa.addState("y"));
+		assertTrue(dfa.addState("z"));
+		assertTrue(dfa.setStart("s"));
+		assertTrue(dfa.setFinal("x"));
+		assertTrue(dfa.setFinal("z"));
+		assertTrue(dfa.addTransition("s", "x", 'a'));
+		assertTrue(dfa.addTransition("x", "y", 'a'));
+		assertTrue(dfa.addTransition("y", "y", 'a'));
+		assertTrue(dfa.addTransition("x", "z", 'c'));
+		assertTrue(dfa.addTransition("y", "z", 'c'));
+		
+		assertEquals(List.of(new DFAMatch(0, 1), new DFAMatch(1, 2), new DFAMatch(3, 5)), dfa.findAll("aabac"));
+		
+		//one pass over the text, restarting from every match took minutes here
+		int n = 1_000_000;
+		String text = "a".repeat(n) + "bac";
+		assertEquals(n + 1, dfa.count(text));
+		List<DFAMatch> matches = dfa.findAll(text);
+		assertEquals(new DFAMatch(n - 1, n), matches.get(n - 1));
+		assertEquals(new DFAMatch(n + 1, n + 3), matches.get(n));
+		
+		System.out.println("search a | aa*c pass");
+	}
+	
+	@Test(timeout = 10_000)
+	public void test4_4() {
+		DFA dfa = dfaAB();
+		
+		//restarting from the end of every match reads each part of the text about once
+		int n = 300_000;
+		String text = "zab".repeat(n);
+		List<DFAMatch> matches = new ArrayList<>();
+		for (DFAMatch m = dfa.find(text); m != null; m = dfa.find(text, m.getEnd())) {
+			matches.add(m);
+		}
+		assertEquals(n, matches.size());
+		assertEquals(dfa.findAll(text), matches);
+		assertNull(dfa.find(text, text.length()));
+		
+		System.out.println("dfaAB repeated find pass");
+	}
+	
+//------------------- export tests ----------------------//
+	@Test
+	public void test5_1() throws IOException {
+		DFA dfa = dfa1();
+		
+		StringWriter out = new StringWriter();
+		dfa.writeTo(out);
+		assertEquals(dfa.toString(), out.toString());
+		
+		StringBuilder csv = new StringBuilder();
+		dfa.writeCsv(csv);
+		assertEquals("from,symbol,to\n"
+				+ "a,0,a\n"
+				+ "a,1,b\n"
+				+ "b,0,a\n"
+				+ "b,1,b\n", csv.toString());
+		
+		StringBuilder dot = new StringBuilder();
+		dfa.writeDot(dot);
+		assertTrue(dot.toString().startsWith("digraph DFA {"));
+		assertTrue(dot.toString().contains("\"b\" [shape=doublecircle];"));
+		assertTrue(dot.toString().contains("__start -> \"a\";"));
+		assertTrue(dot.toString().contains("\"a\" -> \"b\" [label=\"1\"];"));
+		
+		System.out.println("dfa1 export pass");
+	}
+	
+	@Test
+	public void test5_2() throws IOException {
+		DFA dfa = dfaAB();
+		
+		//missing transitions are printed as - and left out of the edge list
+		String dfaStr = dfa.toString();
+		String expStr = "Q = { s x y }\n"
+				+ "Sigma = { a b }\n"
+				+ "delta =\n"
+				+ "	a	b\n"
+				+ "s	x	-\n"
+				+ "x	-	y\n"
+				+ "y	-	-\n"
+				+ "q0 = s\n"
+				+ "F = { y }\n";
+		assertTrue(dfaStr.replaceAll("\\s", "").equals(expStr.replaceAll("\\s", "")));
+		
+		StringBuilder csv = new StringBuilder();
+		dfa.writeCsv(csv);
+		assertEquals("from,symbol,to\ns,a,x\nx,b,y\n", csv.toString());
+		
+		System.out.println("dfaAB export pass");
+	}
+	
+//------------------- reader tests ----------------------//
+	@Test
+	public void test6_1() throws IOException {
+		DFA dfa = DFAReader.read(new StringReader(dfa3().toString()));
+		
+		assertEquals(dfa3().toString(), dfa.toString());
+		assertTrue(dfa.isStart("A"));
+		assertTrue(dfa.isFinal("G"));
+		assertTrue(dfa.accepts("121212121"));
+		assertFalse(dfa.accepts("1212"));
+		
+		//missing transitions read back as missing
+		assertEquals(dfaAB().toString(), DFAReader.read(new StringReader(dfaAB().toString())).toString());
+		
+		System.out.println("dfa3 read pass");
+	}
+	
+	@Test
+	public void test6_2() throws IOException {
+		StringBuilder csv = new StringBuilder();
+		dfa1().writeCsv(csv);
+		csv.append("# start and accepting states\n%start a\n%final b\n");
+		DFA dfa = DFAReader.readEdgeList(new StringReader(csv.toString()));
+		
+		assertEquals(dfa1().toString(), dfa.toString());
+		assertTrue(dfa.accepts("101"));
+		
+		DFA spaced = DFAReader.readEdgeList(new StringReader("%sigma 1 0\np \",\" q\n%final q\n%start p\n"));
+		assertEquals(Set.of(',', '1', '0'), spaced.getSigma());
+		assertTrue(spaced.accepts(","));
+		
+		System.out.println("dfa1 edge list pass");
+	}
+	
+	@Test
+	public void test6_4() throws IOException {
+		//names with whitespace, comment and directive markers survive a CSV round trip
+		DFA dfa = new DFA();
+		dfa.addSigma(' ');
+		dfa.addSigma(',');
+		assertTrue(dfa.addState("p q"));
+		assertTrue(dfa.addState("%start"));
+		assertTrue(dfa.addState("#r"));
+		assertTrue(dfa.setStart("p q"));
+		assertTrue(dfa.setFinal("#r"));
+		assertTrue(dfa.addTransition("p q", "%start", ' '));
+		assertTrue(dfa.addTransition("%start", "#r", ','));
+		
+		StringBuilder csv = new StringBuilder();
+		dfa.writeCsv(csv);
+		csv.append("%start \"p q\"\n%final \"#r\"\n");
+		DFA copy = DFAReader.readEdgeList(new StringReader(csv.toString()));
+		
+		assertEquals(dfa.toString(), copy.toString());
+		assertTrue(copy.accepts(" ,"));
+		assertFalse(copy.accepts(", "));
+		
+		System.out.println("csv round trip pass");
+	}
+	
+	@Test
+	public void test6_3() throws IOException {
+		try {
+			DFAReader.read(new StringReader("Q = { a b }\nSigma = { 0 }\ndelta =\n\t0\na\tc\n"));
+			fail("unknown state accepted");
+		} catch (DFAFormatException e) {
+			assertEquals(5, e.getLine());
+			assertEquals(3, e.getColumn());
+		}
+		try {
+			DFAReader.readEdgeList(new StringReader("a,0,b\na,01,b\n"));
+			fail("long symbol accepted");
+		} catch (DFAFormatException e) {
+			assertEquals(2, e.getLine());
+			assertEquals(3, e.getColumn());
+		}
+		
+		System.out.println("reader error pass");
+	}
+	
+//------------------- relabel tests ----------------------//
+	@Test
+	public void test7_1() {
+		DFA dfa = dfaAB();
+		
+		//missing transitions are swapped too
+		DFA dfaSwap = dfa.swap('a', 'b');
+		assertTrue(dfaSwap.accepts("ba"));
+		assertFalse(dfaSwap.accepts("ab"));
+		assertEquals(dfa.getSigma(), dfaSwap.getSigma());
+		assertTrue(dfa.accepts("ab"));
+		
+		System.out.println("dfaAB swap pass");
+	}
+	
+	@Test
+	public void test7_2() {
+		DFA dfa = dfaAB();
+		Map<Character, Character> upper = Map.of('A', 'a', 'B', 'b');
+		
+		DFA copy = dfa.relabel(upper);
+		FAInterface view = dfa.relabelView(upper);
+		assertEquals(Set.of('a', 'b', 'A', 'B'), copy.getSigma());
+		assertEquals(Set.of('a', 'b', 'A', 'B'), view.getSigma());
+		for (String s : new String[] { "ab", "AB", "aB", "Ab", "ba", "abA", "" }) {
+			assertEquals(s, copy.accepts(s), view.accepts(s));
+		}
+		assertTrue(view.accepts("Ab"));
+		assertTrue(view.isStart("s"));
+		
+		//the view follows later changes, the copy does not
+		assertTrue(dfa.addTransition("y", "x", 'a'));
+		assertTrue(view.accepts("aBAb"));
+		assertFalse(copy.accepts("aBAb"));
+		
+		try {
+			view.addState("z");
+			fail("view modified");
+		} catch (UnsupportedOperationException e) {
+			assertNull(dfa.getState("z"));
+		}
+		
+		System.out.println("dfaAB relabel pass");
+	}
+	
+//------------------- cache tests ----------------------//
+	@Test
+	public void test8_1() {
+		DFA dfa = dfa1();
+		AcceptCache cache = new AcceptCache(1024, 8);
+		dfa.setAcceptCache(cache);
+		
+		assertTrue(dfa.accepts("101"));
+		assertTrue(dfa.accepts("101"));
+		assertFalse(dfa.accepts("100"));
+		assertTrue(dfa.accepts("0000000001"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(1, cache.getBypassCount());
+		assertEquals(2, cache.size());
+		
+		//modifying the DFA drops cached results
+		assertTrue(dfa.setFinal("a"));
+		assertEquals(0, cache.size());
+		assertTrue(dfa.accepts("100"));
+		
+		System.out.println("dfa1 cache pass");
+	}
+	
+	@Test
+	public void test8_2() {
+		DFA dfa = dfa2();
+		AcceptCache cache = new AcceptCache(16 * (AcceptCache.ENTRY_WEIGHT + 4), 4);
+		dfa.setAcceptCache(cache);
+		
+		//four character strings only fit one per segment
+		for (int i = 0; i < 16; i++) {
+			String s = String.format("%4s", Integer.toBinaryString(i)).replace(' ', '0');
+			assertEquals(s, dfa2().accepts(s), dfa.accepts(s));
+			assertEquals(s, dfa2().accepts(s), dfa.accepts(s));
+		}
+		assertTrue(cache.weight() <= 16 * (AcceptCache.ENTRY_WEIGHT + 4));
+		assertTrue(cache.getEvictionCount() > 0);
+		assertEquals(16, cache.getHitCount());
+		assertEquals(16, cache.getMissCount());
+		
+		System.out.println("dfa2 cache pass");
+	}
+	
+	@Test
+	public void test8_3() {
+		DFA dfa = dfa1();
+		//segments hold 1000 / 16 = 62, room for strings of up to 46 characters
+		AcceptCache cache = new AcceptCache(1000, 100);
+		dfa.setAcceptCache(cache);
+		
+		String hot = "0";
+		assertFalse(dfa.accepts(hot));
+		assertFalse(dfa.accepts(hot));
+		String heavy = "0".repeat(49) + "1";
+		for (int i = 0; i < 16; i++) {
+			assertTrue(dfa.accepts(heavy));
+		}
+		//too heavy for a segment, the string bypasses instead of flushing it
+		assertEquals(16, cache.getBypassCount());
+		assertEquals(0, cache.getEvictionCount());
+		assertEquals(1, cache.size());
+		assertFalse(dfa.accepts(hot));
+		assertEquals(2, cache.getHitCount());
+		
+		System.out.println("dfa1 heavy cache pass");
+	}
+	
+	@Test
+	public void test8_4() {
+		DFA dfa = dfa1();
+		//too light for sixteen segments, four of 25 still hold strings of up to 9 characters
+		AcceptCache cache = new AcceptCache(100, 10);
+		dfa.setAcceptCache(cache);
+		
+		assertFalse(dfa.accepts(""));
+		assertFalse(dfa.accepts(""));
+		assertTrue(dfa.accepts("000000001"));
+		assertTrue(dfa.accepts("000000001"));
+		assertTrue(dfa.accepts("0000000001"));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getBypassCount());
+		assertTrue(cache.weight() <= 100);
+		
+		//not even room for an empty string
+		try {
+			new AcceptCache(AcceptCache.ENTRY_WEIGHT - 1, 0);
+			fail("cache that can't hold an entry");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("ENTRY_WEIGHT"));
+		}
+		
+		System.out.println("dfa1 light cache pass");
+	}
+	
+//------------------- sampling tests ----------------------//
+	@Test
+	public void test9_1() {
+		DFA dfa = dfa1();
+		
+		assertEquals(List.of("1", "01", "11", "001", "011", "101", "111"),
+				dfa.acceptedStrings().limit(7).collect(Collectors.toList()));
+		assertEquals(List.of("ab"), dfaAB().acceptedStrings().collect(Collectors.toList()));
+		
+		List<String> first = dfa3().acceptedStrings().limit(20).collect(Collectors.toList());
+		assertEquals(List.of("11", "22", "111"), first.subList(0, 3));
+		for (int i = 0; i < first.size(); i++) {
+			assertTrue(dfa3().accepts(first.get(i)));
+			assertTrue(i == 0 || first.get(i - 1).length() < first.get(i).length()
+					|| first.get(i - 1).compareTo(first.get(i)) < 0);
+		}
+		
+		System.out.println("dfa1 enumerate pass");
+	}
+	
+	@Test
+	public void test9_2() {
+		DFASampler sampler = dfa1().sampler(3);
+		assertEquals(BigInteger.valueOf(4), sampler.count());
+		
+		Map<String, Integer> seen = new HashMap<>();
+		sampler.samples(new Random(361)).limit(4000).forEach(s -> seen.merge(s, 1, Integer::sum));
+		assertEquals(Set.of("001", "011", "101", "111"), seen.keySet());
+		for (int times : seen.values()) {
+			assertTrue(times > 800 && times < 1200);
+		}
+		
+		assertNull(dfaAB().sampler(3).sample(new Random(361)));
+		assertEquals(BigInteger.ONE.shiftLeft(99), dfa1().sampler(100).count());
+		assertTrue(dfa1().accepts(dfa1().sampler(100).sample(new Random(361))));
+		
+		System.out.println("dfa1 sample pass");
+	}
+	
+//------------------- view tests ----------------------//
+	@Test
+	public void test10_1() {
+		DFA dfa = dfaAB();
+		FAInterface complete = dfa.complete();
+		FAInterface complement = dfa.complement();
+		
+		for (String s : new String[] { "", "a", "ab", "ba", "abb", "aab" }) {
+			assertEquals(s, dfa.accepts(s), complete.accepts(s));
+			assertEquals(s, !dfa.accepts(s), complement.accepts(s));
+		}
+		//symbols outside of Sigma are rejected either way
+		assertFalse(complement.accepts("ac"));
+		
+		assertTrue(complement.isFinal("trap"));
+		assertFalse(complete.isFinal("trap"));
+		assertNotNull(complete.getState("trap"));
+		assertTrue(complement.isFinal("s"));
+		assertFalse(complement.isFinal("y"));
+		
+		System.out.println("dfaAB complement pass");
+	}
+	
+	@Test
+	public void test10_2() {
+		DFA dfa = dfa3();
+		FAInterface reverse = dfa.reverse();
+		
+		for (String s : new String[] { "121212121", "12221212121", "12", "2", "1212", "" }) {
+			assertEquals(s, dfa.accepts(s), reverse.accepts(new StringBuilder(s).reverse().toString()));
+		}
+		assertTrue(reverse.isStart("G"));
+		assertTrue(reverse.isFinal("A"));
+		
+		//views follow changes to the DFA
+		assertTrue(dfa.setFinal("B"));
+		assertTrue(reverse.accepts("1"));
+		assertFalse(dfa.complement().accepts("1"));
+		
+		System.out.println("dfa3 reverse pass");
+	}
+	
+//------------------- dictionary tests ----------------------//
+	@Test
+	public void test11_1() {
+		List<String> words = Arrays.asList("", "tap", "taps", "top", "tops");
+		DFADictionary dictionary = DFADictionary.fromSortedWords(words.iterator());
+		
+		for (String s : words) {
+			assertTrue(s, dictionary.contains(s));
+		}
+		assertFalse(dictionary.contains("ta"));
+		assertFalse(dictionary.contains("tapss"));
+		assertFalse(dictionary.contains("tip"));
+		assertEquals(5, dictionary.size());
+		//q0 -t-> -a,o-> -p-> (final) -s-> (final), both vowels share one state
+		assertEquals(5, dictionary.stateCount());
+		assertEquals(5, dictionary.transitionCount());
+		
+		DFA dfa = DFA.fromSortedWords(words.iterator());
+		assertNotNull(dfa.getState("q4"));
+		assertNull(dfa.getState("q5"));
+		assertTrue(dfa.accepts("tops"));
+		assertTrue(dfa.accepts(""));
+		assertFalse(dfa.accepts("to"));
+		
+		System.out.println("dictionary tap top pass");
+	}
+	
+	@Test
+	public void test11_2() {
+		//repeated words are skipped, words out of order are rejected
+		DFADictionary dictionary = DFADictionary.fromSortedWords(Arrays.asList("a", "a", "b").iterator());
+		assertEquals(2, dictionary.size());
+		
+		try {
+			DFADictionary.fromSortedWords(Arrays.asList("b", "a").iterator());
+			fail("unsorted words accepted");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("not sorted"));
+		}
+		try {
+			DFADictionary.fromSortedWords(Arrays.asList("ab", "a").iterator());
+			fail("prefix after its extension accepted");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("not sorted"));
+		}
+		
+		DFADictionary empty = DFADictionary.fromSortedWords(Collections.<String>emptyIterator());
+		assertFalse(empty.contains(""));
+		assertEquals(1, empty.stateCount());
+		
+		System.out.println("dictionary sorting pass");
+	}
+	
 }
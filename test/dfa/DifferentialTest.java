@@ -0,0 +1,192 @@
+package test.dfa;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import fa.FAInterface;
+import fa.dfa.AcceptCache;
+import fa.dfa.DFA;
+import fa.dfa.DFADictionary;
+import fa.dfa.DFAGenerator;
+import fa.dfa.DFAMatch;
+import fa.dfa.DFAReader;
+import fa.dfa.DFASampler;
+
+/**
+ * Checks every alternative way of deciding acceptance against DFA.accepts
+ * on generated automata, and enumeration and sampling against every short
+ * string. The number of cases is set with -Ddfa.cases.
+ */
+public class DifferentialTest {
+	
+	private static final long SEED = 361;
+	private static final int INPUTS_PER_DFA = 500;
+	private static final int CASES = Integer.getInteger("dfa.cases", 1_000_000);
+	
+	@Test
+	public void testDifferential() throws IOException {
+		DFAGenerator generator = new DFAGenerator(SEED);
+		Random random = new Random(SEED);
+		long cases = 0;
+		for (int round = 0; cases < CASES; round++) {
+			int states = 1 + round % 12;
+			int sigmaSize = 1 + round % 4;
+			double density = (round % 3 == 0) ? 1.0 : 0.7;
+			DFA dfa = generator.generate(states, sigmaSize, 0.3, density);
+			String[] inputs = generator.inputs(dfa, INPUTS_PER_DFA, 12);
+			
+			DFA table = DFAReader.read(new StringReader(dfa.toString()));
+			
+			StringBuilder csv = new StringBuilder();
+			dfa.writeCsv(csv);
+			csv.append("%start q0\n%state");
+			StringBuilder finals = new StringBuilder("%final");
+			for (int q = 0; q < states; q++) {
+				csv.append(" q").append(q);
+				if (dfa.isFinal("q" + q)) {
+					finals.append(" q").append(q);
+				}
+			}
+			csv.append('\n').append(finals).append('\n');
+			DFA edgeList = DFAReader.readEdgeList(new StringReader(csv.toString()));
+			
+			Map<Character, Character> identity = new HashMap<>();
+			for (char c : dfa.getSigma()) {
+				identity.put(c, c);
+			}
+			DFA relabeled = dfa.relabel(identity);
+			FAInterface view = dfa.relabelView(identity);
+			//rotate Sigma and read upper case as lower case, view and copy must agree
+			Map<Character, Character> rotate = new HashMap<>();
+			for (char c : dfa.getSigma()) {
+				rotate.put(c, (char) ('a' + (c - 'a' + 1) % sigmaSize));
+				rotate.put(Character.toUpperCase(c), c);
+			}
+			DFA rotated = dfa.relabel(rotate);
+			FAInterface rotatedView = dfa.relabelView(rotate);
+			assertEquals("round " + round + " rotated sigma", rotated.getSigma(), rotatedView.getSigma());
+			FAInterface complete = dfa.complete();
+			FAInterface complement = dfa.complement();
+			FAInterface reverse = dfa.reverse();
+			DFA cached = dfa.relabel(identity);
+			cached.setAcceptCache(new AcceptCache(4096, 8));
+			
+			//enumeration and sample counts against every short string
+			List<String> accepted = new ArrayList<>();
+			List<String> level = new ArrayList<>(List.of(""));
+			for (int length = 0; length <= 4; length++) {
+				List<String> longer = new ArrayList<>();
+				long count = 0;
+				for (String s : level) {
+					if (dfa.accepts(s)) {
+						accepted.add(s);
+						count++;
+					}
+					for (char c = 'a'; c < 'a' + sigmaSize; c++) {
+						longer.add(s + c);
+					}
+				}
+				DFASampler sampler = dfa.sampler(length);
+				assertEquals("round " + round + " count of length " + length, count, sampler.count().longValue());
+				if (count > 0) {
+					assertTrue("round " + round + " sample", dfa.accepts(sampler.sample(random)));
+				}
+				level = longer;
+			}
+			assertEquals("round " + round + " enumeration", accepted,
+					dfa.acceptedStrings().takeWhile(s -> s.length() <= 4).collect(Collectors.toList()));
+			
+			for (String s : inputs) {
+				boolean expected = dfa.accepts(s);
+				String where = "seed " + SEED + " round " + round + " input \"" + s + "\"";
+				
+				assertEquals(where + " table", expected, table.accepts(s));
+				assertEquals(where + " cache", expected, cached.accepts(s));
+				assertEquals(where + " edge list", expected, edgeList.accepts(s));
+				assertEquals(where + " relabel", expected, relabeled.accepts(s));
+				assertEquals(where + " relabel view", expected, view.accepts(s));
+				assertEquals(where + " rotated view", rotated.accepts(s), rotatedView.accepts(s));
+				String upper = s.toUpperCase();
+				assertEquals(where + " rotated view " + upper, rotated.accepts(upper), rotatedView.accepts(upper));
+				
+				assertEquals(where + " complete", expected, complete.accepts(s));
+				assertEquals(where + " reverse", expected, reverse.accepts(new StringBuilder(s).reverse().toString()));
+				boolean overSigma = s.chars().allMatch(c -> dfa.getSigma().contains((char) c));
+				assertEquals(where + " complement", overSigma && !expected, complement.accepts(s));
+				
+				DFAMatch match = dfa.find(s);
+				boolean whole = match != null && match.getStart() == 0 && match.getEnd() == s.length();
+				assertEquals(where + " find", expected, whole);
+				cases++;
+			}
+		}
+		System.out.println(cases + " differential cases pass");
+	}
+	@Test
+	public void testDictionary() {
+		Random random = new Random(SEED);
+		for (int round = 0; round < 2000; round++) {
+			TreeSet<String> words = new TreeSet<>();
+			int count = random.nextInt(40);
+			for (int i = 0; i < count; i++) {
+				words.add(randomWord(random, 1 + round % 3, 6));
+			}
+			DFADictionary dictionary = DFADictionary.fromSortedWords(words.iterator());
+			DFA dfa = DFA.fromSortedWords(words.iterator());
+			String where = "round " + round + " " + words;
+			
+			assertEquals(where, words.size(), dictionary.size());
+			for (int i = 0; i < 200; i++) {
+				String s = randomWord(random, 1 + round % 3, 7);
+				assertEquals(where + " contains " + s, words.contains(s), dictionary.contains(s));
+				assertEquals(where + " accepts " + s, words.contains(s), dfa.accepts(s));
+			}
+			for (String s : words) {
+				assertTrue(where + " contains " + s, dictionary.contains(s));
+			}
+			
+			//minimal: one state per distinct set of suffixes after a prefix of some word
+			Set<Set<String>> rightLanguages = new HashSet<>();
+			rightLanguages.add(words);
+			for (String w : words) {
+				for (int i = 1; i <= w.length(); i++) {
+					String prefix = w.substring(0, i);
+					Set<String> suffixes = new TreeSet<>();
+					for (String v : words.tailSet(prefix)) {
+						if (!v.startsWith(prefix)) {
+							break;
+						}
+						suffixes.add(v.substring(i));
+					}
+					rightLanguages.add(suffixes);
+				}
+			}
+			assertEquals(where, rightLanguages.size(), dictionary.stateCount());
+			assertNotNull(where, dfa.getState("q" + (rightLanguages.size() - 1)));
+			assertNull(where, dfa.getState("q" + rightLanguages.size()));
+		}
+		System.out.println("dictionary differential pass");
+	}
+	
+	/** Helper method to return a random word over the first sigmaSize letters */
+	private static String randomWord(Random random, int sigmaSize, int maxLength) {
+		char[] chars = new char[random.nextInt(maxLength + 1)];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) ('a' + random.nextInt(sigmaSize));
+		}
+		return new String(chars);
+	}
+}
@@ -0,0 +1,113 @@
+package test.dfa;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import fa.dfa.DFA;
+import fa.dfa.DFADictionary;
+import fa.dfa.DFAGenerator;
+import fa.dfa.DFAReader;
+
+/**
+ * Time and memory budgets for automata with a million states.
+ * Skipped unless run with -Ddfa.scale=true (gradle test -Pscale),
+ * the JVM needs a few GB of heap.
+ */
+public class ScaleTest {
+	
+	private static final int STATES = 1_000_000;
+	private static final long MB = 1024 * 1024;
+	
+	private static DFA dfa;
+	
+	@BeforeClass
+	public static void generate() {
+		assumeTrue("scale tests run with -Ddfa.scale=true", Boolean.getBoolean("dfa.scale"));
+		long start = System.nanoTime();
+		dfa = new DFAGenerator(361).generate(STATES, 2, 0.5, 1.0);
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		System.out.println("generate " + STATES + " states: " + millis + " ms, " + usedMemory() / MB + " MB");
+		assertTrue("generate took " + millis + " ms", millis < 20_000);
+		assertTrue("DFA uses " + usedMemory() / MB + " MB", usedMemory() < 1024 * MB);
+	}
+	
+	@Test
+	public void testAccepts() {
+		String[] inputs = new DFAGenerator(1).inputs(dfa, 100, 100_000);
+		long start = System.nanoTime();
+		for (String s : inputs) {
+			dfa.accepts(s);
+		}
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		System.out.println("accepts 100 inputs up to 100000 symbols: " + millis + " ms");
+		assertTrue("accepts took " + millis + " ms", millis < 10_000);
+	}
+	
+	@Test
+	public void testRoundTrip() throws IOException {
+		long start = System.nanoTime();
+		StringWriter out = new StringWriter();
+		dfa.writeTo(out);
+		DFA copy = DFAReader.read(new StringReader(out.toString()));
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		System.out.println("write and read back: " + millis + " ms");
+		assertTrue("round trip took " + millis + " ms", millis < 30_000);
+		assertEquals(dfa.isFinal("q999999"), copy.isFinal("q999999"));
+	}
+	
+	@Test
+	public void testSwap() {
+		long start = System.nanoTime();
+		DFA swapped = dfa.swap('a', 'b');
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		System.out.println("swap: " + millis + " ms");
+		assertTrue("swap took " + millis + " ms", millis < 10_000);
+		assertEquals(dfa.accepts("ab"), swapped.accepts("ba"));
+	}
+	
+	@Test
+	public void testDictionary() {
+		Random random = new Random(361);
+		String[] words = new String[3_000_000];
+		for (int i = 0; i < words.length; i++) {
+			char[] chars = new char[6 + random.nextInt(7)];
+			for (int j = 0; j < chars.length; j++) {
+				chars[j] = (char) ('a' + random.nextInt(26));
+			}
+			words[i] = new String(chars);
+		}
+		Arrays.sort(words);
+		
+		DFADictionary dictionary = DFADictionary.fromSortedWords(Arrays.asList(words).iterator());
+		long millis = dictionary.getBuildNanos() / 1_000_000;
+		System.out.println("dictionary of " + words.length + " words: " + dictionary);
+		assertTrue("fromSortedWords took " + millis + " ms", millis < 20_000);
+		//minimal throughout, never more than the open path on top of the result
+		assertTrue(dictionary.getPeakStates() <= dictionary.stateCount() + 13);
+		assertTrue("dictionary uses " + dictionary.sizeInBytes() / MB + " MB", dictionary.sizeInBytes() < 128 * MB);
+		
+		long start = System.nanoTime();
+		for (String s : words) {
+			assertTrue(dictionary.contains(s));
+		}
+		millis = (System.nanoTime() - start) / 1_000_000;
+		System.out.println("contains " + words.length + " words: " + millis + " ms");
+		assertTrue("contains took " + millis + " ms", millis < 10_000);
+	}
+	
+	/** Helper method to return the heap in use after a collection */
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
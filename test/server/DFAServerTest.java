@@ -0,0 +1,220 @@
+package test.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import fa.dfa.DFA;
+import fa.server.DFAServer;
+import fa.server.LoadGenerator;
+
+public class DFAServerTest {
+	
+	//accepts strings over {0, 1} that end in 1
+	private DFA endsInOne() {
+		DFA dfa = new DFA();
+		dfa.addSigma('0');
+		dfa.addSigma('1');
+		assertTrue(dfa.addState("a"));
+		assertTrue(dfa.addState("b"));
+		assertTrue(dfa.setStart("a"));
+		assertTrue(dfa.setFinal("b"));
+		assertTrue(dfa.addTransition("a", "a", '0'));
+		assertTrue(dfa.addTransition("a", "b", '1'));
+		assertTrue(dfa.addTransition("b", "a", '0'));
+		assertTrue(dfa.addTransition("b", "b", '1'));
+		return dfa;
+	}
+	
+	@Test
+	public void testQueries() throws IOException {
+		try (DFAServer server = new DFAServer(16, 0)) {
+			server.put("ends1", endsInOne());
+			server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			
+			try (Client client = new Client(server.getAddress())) {
+				assertEquals("PONG", client.send("PING"));
+				assertEquals("1", client.send("ACCEPT ends1 0101"));
+				assertEquals("0", client.send("ACCEPT ends1 0110"));
+				assertEquals("0", client.send("ACCEPT ends1"));
+				assertTrue(client.send("ACCEPT nope 1").startsWith("ERR"));
+				assertTrue(client.send("FOO").startsWith("ERR"));
+				assertEquals("ends1", client.send("LIST"));
+				
+				//pipelined requests are answered in order
+				assertArrayEquals(new String[] { "1", "0", "1" },
+						client.send("ACCEPT ends1 1", "ACCEPT ends1 10", "ACCEPT ends1 101"));
+			}
+		}
+		System.out.println("server queries pass");
+	}
+	
+	@Test
+	public void testLongLine() throws IOException {
+		try (DFAServer server = new DFAServer(16, 0)) {
+			server.put("ends1", endsInOne());
+			server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			
+			try (Client client = new Client(server.getAddress())) {
+				//an over-long line is skipped, the connection keeps serving
+				String input = "0".repeat(1 << 17) + "1";
+				assertArrayEquals(new String[] { "ERR request line too long", "1", "PONG" },
+						client.send("ACCEPT ends1 " + input, "ACCEPT ends1 1", "PING"));
+			
+				//\r\n ends lines too
+				assertArrayEquals(new String[] { "1", "0" }, client.send("ACCEPT ends1 1\r", "ACCEPT ends1 0\r"));
+			}
+		}
+		System.out.println("server long line pass");
+	}
+	
+	@Test(timeout = 30000)
+	public void testCloseWhileQuerying() throws Exception {
+		String[] requests = new String[512];
+		Arrays.fill(requests, "ACCEPT ends1 " + "01".repeat(1000));
+		for (int round = 0; round < 20; round++) {
+			DFAServer server = new DFAServer(4, 0);
+			server.put("ends1", endsInOne());
+			server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			try (Client client = new Client(server.getAddress())) {
+				assertEquals("1", client.send(requests[0]));
+				Thread closer = new Thread(() -> {
+					try {
+						server.close();
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				});
+				closer.start();
+				
+				//every reply is an answer or ERR until the connection ends, none hangs
+				try {
+					for (String reply : client.send(requests)) {
+						assertTrue(reply, reply == null || reply.equals("1") || reply.startsWith("ERR"));
+					}
+				} catch (IOException e) {
+					//Closed mid-reply
+				}
+				closer.join();
+			}
+		}
+		System.out.println("server close while querying pass");
+	}
+	
+	@Test
+	public void testReload() throws IOException {
+		Path file = Files.createTempFile("dfa", ".txt");
+		Path socket = Files.createTempDirectory("dfa").resolve("server.sock");
+		try (DFAServer server = new DFAServer(16, 100)) {
+			Files.writeString(file, endsInOne().toString());
+			server.load("rule", file);
+			server.start(UnixDomainSocketAddress.of(socket));
+			
+			try (Client client = new Client(server.getAddress())) {
+				assertEquals("1", client.send("ACCEPT rule 01"));
+				
+				//flip the rule on disk, the open connection sees the new automaton
+				Files.writeString(file, endsInOne().swap('0', '1').toString());
+				assertEquals("OK", client.send("RELOAD rule"));
+				assertEquals("0", client.send("ACCEPT rule 01"));
+				assertEquals("1", client.send("ACCEPT rule 10"));
+				
+				//a broken file keeps the old automaton
+				Files.writeString(file, "Q = {");
+				String reply = client.send("RELOAD rule");
+				assertEquals("ERR malformed file for rule at line 1, column 6", reply);
+				assertEquals("1", client.send("ACCEPT rule 10"));
+				
+				//clients can't make the server open paths of their choosing
+				assertEquals("ERR unknown command LOAD", client.send("LOAD secret " + file));
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+		System.out.println("server reload pass");
+	}
+	
+	@Test
+	public void testSocketPath() throws IOException {
+		Path file = Files.createTempFile("dfa", ".sock");
+		try (DFAServer server = new DFAServer(16, 100)) {
+			//an existing file that is not a socket is left alone
+			try {
+				server.start(UnixDomainSocketAddress.of(file));
+				fail("regular file replaced by a socket");
+			} catch (IOException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("not a socket"));
+			}
+		} finally {
+			assertTrue(Files.isRegularFile(file));
+			Files.deleteIfExists(file);
+		}
+		System.out.println("server socket path pass");
+	}
+	
+	@Test
+	public void testLoadGenerator() throws Exception {
+		try (DFAServer server = new DFAServer(64, 0)) {
+			server.put("ends1", endsInOne());
+			server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			
+			long[] latencies = new LoadGenerator(server.getAddress(), "ends1", "01", 16, 4).run(8, 200, 361);
+			assertEquals(8 * 200 + 1, latencies.length);
+			assertTrue(LoadGenerator.percentile(latencies, 1600, 50) <= LoadGenerator.percentile(latencies, 1600, 99));
+		}
+		System.out.println("server load pass");
+	}
+	
+	/** Blocking line client */
+	private static final class Client implements AutoCloseable {
+		private final SocketChannel channel;
+		private final BufferedReader in;
+		private final Writer out;
+		
+		Client(SocketAddress address) throws IOException {
+			channel = address instanceof UnixDomainSocketAddress
+					? SocketChannel.open(StandardProtocolFamily.UNIX) : SocketChannel.open();
+			channel.connect(address);
+			in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+			out = new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8);
+		}
+		
+		String send(String request) throws IOException {
+			return send(new String[] { request })[0];
+		}
+		
+		String[] send(String... requests) throws IOException {
+			for (String request : requests) {
+				out.write(request + "\n");
+			}
+			out.flush();
+			String[] replies = new String[requests.length];
+			for (int i = 0; i < replies.length; i++) {
+				replies[i] = in.readLine();
+			}
+			return replies;
+		}
+		
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}